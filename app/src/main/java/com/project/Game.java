@@ -0,0 +1,976 @@
+package com.project;
+
+import com.project.engine.Board;
+import com.project.engine.Cell;
+import com.project.engine.Coverage;
+import com.project.engine.Events;
+import com.project.engine.Figure;
+import com.project.engine.GameState;
+import com.project.engine.PatternSearch;
+import com.project.engine.PendingFigures;
+import com.project.engine.PolygonEnumerator;
+import com.project.engine.SessionStore;
+import com.project.engine.ShapeIndex;
+import com.project.engine.SimilarityIndex;
+import com.project.engine.SymmetryGroup;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Square grid game, where it is possible to draw shapes (figures).
+ * Children could use this application to learn about symmetries: application fills equal shapes with
+ * the same color and writes on the label number of symmetrical shapes, also it specify square area of the last shape.
+ * The lattice is unbounded: mouse wheel zooms, dragging with the right (or middle) button or arrow keys move the view.
+ * Size of the window and initial zoom could be changed by --size=N (number of squares) and --cell=N (pixels)
+ * program arguments. All geometry lives in the com.project.engine module, this class only draws it.
+ */
+public class Game extends Application{
+    int SIZE = 20; // number of squares visible in the window
+    int CELL_SIZE = 40; // initial size of the square
+
+    /**
+     * Static layer with the grid, it is drawn only once
+     */
+    private Canvas gridCanvas;
+    /**
+     * Layer with finished figures, it is redrawn only when figures change (and only in the changed region)
+     */
+    private Canvas figuresCanvas;
+    /**
+     * Lightweight layer with the figure in progress and the line to the cursor, redrawn on mouse move
+     */
+    private Canvas overlayCanvas;
+    private GraphicsContext gridGc;
+    private GraphicsContext figuresGc;
+    private GraphicsContext overlayGc;
+    private double mouseX, mouseY;
+    /**
+     * Last mouse position while the view is dragged
+     */
+    private double dragX, dragY;
+    /**
+     * Visible part of the lattice, all conversions between lattice and screen go through it
+     */
+    private Viewport viewport;
+    /**
+     * Figures, their classes and the board with finished figures (bucketed into chunks,
+     * so only the visible ones are rendered)
+     */
+    private GameState state;
+    /**
+     * Saved session (every closed or removed figure is written to its journal), null if it could not be opened
+     */
+    private SessionStore session;
+    /**
+     * Pre-rendered grid cell used as a pattern fill, so the grid costs one fillRect instead of 2*(SIZE+1) lines
+     */
+    private WritableImage gridTile;
+    /**
+     * Cell size in pixels the gridTile was rendered for
+     */
+    private double gridTileCellSize = -1;
+    private Label dataLabel;
+    private Label symmetryLabel;
+    private Label symmetryInfoLabel;
+    private Label backspaceLabel;
+    private Label remainingLabel;
+    /**
+     * Performance overlay (F3)
+     */
+    private Hud hud;
+    /**
+     * Figures being classified, they are drawn on the overlay in their provisional color
+     */
+    private PendingFigures pendingFigures;
+    /**
+     * Max number of vertices of the figures to discover, the enumeration grows exponentially with it
+     */
+    private static final int MAX_VERTICES_TO_DISCOVER = 3;
+    private PolygonEnumerator discoverable;
+    /**
+     * Number of all distinct figures to discover (-1 while they are being counted)
+     */
+    private long possibleFigures = -1;
+    private Color defined_color = null;
+
+    private static final double TRANSPARENCY = 0.5;
+    /**
+     * If more figures change at once (undo of a big recolor), the whole screen is redrawn
+     */
+    private static final int MAX_DIRTY_REGIONS = 32;
+
+    private static final List<Color> COLORS = Arrays.asList(
+            Color.MEDIUMVIOLETRED.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.CORAL.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DARKSEAGREEN.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DEEPSKYBLUE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.SLATEGRAY.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.CADETBLUE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.TOMATO.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.GOLDENROD.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.MEDIUMSEAGREEN.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DARKTURQUOISE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.ROYALBLUE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DIMGRAY.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.INDIANRED.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DARKOLIVEGREEN.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.ORANGERED.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.STEELBLUE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.TEAL.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.SIENNA.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.DARKORANGE.deriveColor(0, 1, 1, TRANSPARENCY),
+            Color.PURPLE.deriveColor(0, 1, 1, TRANSPARENCY)
+    );
+    static {
+        Collections.shuffle(COLORS);
+    }
+    private static int colorIndex = 0;
+    /**
+     * Figures keep colors as ARGB ints, JavaFX colors are created only once per distinct value
+     */
+    private final Map<Integer, Color> colorCache = new HashMap<>();
+    /**
+     * Direct-mapped cache in front of colorCache, so drawing does not box the ARGB ints
+     */
+    private static final int COLOR_SLOTS = 64;
+    private final int[] colorKeys = new int[COLOR_SLOTS];
+    private final Color[] colorValues = new Color[COLOR_SLOTS];
+    /**
+     * Pixel-space vertices of the drawn figures, the steady-state rendering does not allocate
+     */
+    private final ScreenCache screenCache = new ScreenCache(1 << 16);
+    /**
+     * Input handlers only change the state and request what has to be drawn, the render pass draws it
+     * once per pulse, so the rendering never runs more often than the screen refreshes.
+     * The timer runs only while something is requested.
+     */
+    private AnimationTimer renderTimer;
+    private boolean repaintRequested = false;
+    private boolean figuresRequested = false;
+    private boolean overlayRequested = false;
+    /**
+     * Lattice bounding boxes (min y, min x, max y, max x) of the figure regions to redraw
+     */
+    private final int[] dirtyRegions = new int[4 * MAX_DIRTY_REGIONS];
+    private int dirtyCount = 0;
+    /**
+     * New figures, that are drawn on top of the others without redrawing them
+     */
+    private final List<Figure> newFigures = new ArrayList<>();
+    /**
+     * Number of the most similar classes outlined by the S key
+     */
+    private static final int SIMILAR_CLASSES = 5;
+    /**
+     * Classes outlined on the overlay (the most similar to the selected figure), empty if nothing is outlined
+     */
+    private final Set<ShapeIndex.ShapeClass> highlighted = new HashSet<>();
+    /**
+     * Max distance (in cells) of the searched free placements from the cursor, so the P key stays fast when zoomed out
+     */
+    private static final int SEARCH_RADIUS = 256;
+    /**
+     * Free placements of the figure selected by the P key, the one closest to the cursor is outlined, null if none
+     */
+    private PatternSearch.Placements placements;
+
+    /**
+     * Starts the game and initialize all GUI attributes
+     * @param primaryStage  stage
+     * @see Stage
+     */
+    @Override
+    public void start(Stage primaryStage) {
+        Map<String, String> parameters = getParameters().getNamed();
+        SIZE = Integer.parseInt(parameters.getOrDefault("size", String.valueOf(SIZE)));
+        CELL_SIZE = Integer.parseInt(parameters.getOrDefault("cell", String.valueOf(CELL_SIZE)));
+        GridPane gridPane = new GridPane();
+
+        gridCanvas = new Canvas(SIZE * CELL_SIZE, SIZE * CELL_SIZE);
+        figuresCanvas = new Canvas(SIZE * CELL_SIZE, SIZE * CELL_SIZE);
+        overlayCanvas = new Canvas(SIZE * CELL_SIZE, SIZE * CELL_SIZE);
+        figuresGc = figuresCanvas.getGraphicsContext2D();
+        gridGc = gridCanvas.getGraphicsContext2D();
+        overlayGc = overlayCanvas.getGraphicsContext2D();
+        figuresGc.setLineWidth(2);
+        overlayGc.setLineWidth(2);
+        viewport = new Viewport(CELL_SIZE, SIZE * CELL_SIZE, SIZE * CELL_SIZE);
+        discoverable = new PolygonEnumerator(SIZE, MAX_VERTICES_TO_DISCOVER);
+        state = new GameState(discoverable);
+        pendingFigures = new PendingFigures(state, Platform::runLater, new PendingFigures.Listener() {
+            @Override
+            public void classified(Figure figure, boolean closed) {
+                onClassified(figure, closed);
+            }
+
+            @Override
+            public void failed(Figure figure, Throwable error) {
+                System.err.println("Figure could not be classified: " + error.getMessage());
+                requestOverlay();
+            }
+        });
+        hud = new Hud(state);
+        openSession(Path.of(parameters.getOrDefault("session",
+                Path.of(System.getProperty("user.home"), ".square-grid").toString())));
+
+        renderTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                render();
+            }
+        };
+        // grid and figures loaded from the session
+        requestRepaint();
+
+        StackPane stackPane = new StackPane(gridCanvas, figuresCanvas, overlayCanvas);
+        gridPane.add(stackPane, 0, 0);
+
+
+        ComboBox<String> color_menu = new ComboBox<>();
+        color_menu.getItems().addAll("Random", "Blue", "Red");
+        color_menu.setOnAction(e -> {
+            if (Objects.equals(color_menu.getValue(), "Random")) {
+                defined_color = null;
+            } else if (Objects.equals(color_menu.getValue(), "Blue")) {
+                defined_color = Color.BLUE.deriveColor(0, 1, 1, TRANSPARENCY);
+            } else if (Objects.equals(color_menu.getValue(), "Red")) {
+                defined_color = Color.RED.deriveColor(0, 1, 1, TRANSPARENCY);
+            }
+        });
+        color_menu.setValue("Random");
+
+        Label menu_label = new Label("Vyberte farbu");
+        menu_label.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+        VBox menu = new VBox(
+                menu_label, color_menu);
+        menu.setAlignment(Pos.BOTTOM_CENTER);
+
+
+        dataLabel = new Label("");
+        dataLabel.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+        StackPane.setAlignment(dataLabel, Pos.TOP_RIGHT);
+        stackPane.getChildren().add(dataLabel);
+        updateDataLabel();
+
+        symmetryLabel = new Label("");
+        symmetryLabel.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+        StackPane.setAlignment(symmetryLabel, Pos.TOP_LEFT);
+        stackPane.getChildren().add(symmetryLabel);
+        if (state.getLastFigure() != null) {
+            symmetryLabel.setText("Počet symetrií: " + state.getShapeIndex().getNumberOfSymmetries());
+        }
+
+        remainingLabel = new Label("");
+        remainingLabel.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+        remainingLabel.setVisible(false);
+        StackPane.setAlignment(remainingLabel, Pos.TOP_CENTER);
+        stackPane.getChildren().add(remainingLabel);
+
+        StackPane.setAlignment(hud.getLabel(), Pos.BOTTOM_LEFT);
+        stackPane.getChildren().add(hud.getLabel());
+
+        backspaceLabel = new Label("Backspace/Ctrl+Z: späť, Ctrl+Y: znova, Delete: zmazať útvar pod myšou, C: prefarbiť jeho triedu, S: podobné útvary, P: kópie a voľné miesta pre útvar");
+        backspaceLabel.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+
+        symmetryInfoLabel = new Label("Symetrické útvary sú maľované rovnakou farbou");
+        symmetryInfoLabel.setStyle("-fx-background-color: white; -fx-padding: 5px;");
+        symmetryInfoLabel.setAlignment(Pos.BOTTOM_RIGHT);
+
+        HBox bottom_panel = new HBox(symmetryInfoLabel, menu, backspaceLabel);
+        bottom_panel.setSpacing((double) (SIZE * CELL_SIZE) / 15);
+
+        overlayCanvas.addEventHandler(MouseEvent.MOUSE_CLICKED, recorded(this::onMouseClicked));
+        overlayCanvas.addEventHandler(MouseEvent.MOUSE_MOVED, recorded(this::onMouseMoved));
+        overlayCanvas.addEventHandler(MouseEvent.MOUSE_PRESSED, this::onMousePressed);
+        overlayCanvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, recorded(this::onMouseDragged));
+        overlayCanvas.addEventHandler(ScrollEvent.SCROLL, recorded(this::onScroll));
+        gridPane.add(bottom_panel, 0, 1);
+        gridPane.addEventFilter(KeyEvent.KEY_PRESSED, recorded(this::handleKeyPress));
+
+
+        Scene scene = new Scene(gridPane, SIZE * CELL_SIZE, SIZE * CELL_SIZE + 80);
+        primaryStage.setTitle("Štvorčeková sieť");
+        primaryStage.setScene(scene);
+        primaryStage.show();
+        // figures are only counted (in the fork-join pool), drawn ones are subtracted as they come and go
+        CompletableFuture.supplyAsync(discoverable::count).thenAccept(count -> Platform.runLater(() -> {
+            possibleFigures = count;
+            updateRemainingLabel();
+        }));
+    }
+
+    /**
+     * Wraps the input handler, so every handled event is recorded as a JFR event (see {@link Events.Input})
+     * @param handler   handler of the input event
+     * @return          handler recording the duration
+     */
+    private <T extends Event> EventHandler<T> recorded(EventHandler<T> handler) {
+        return event -> {
+            Events.Input input = new Events.Input();
+            input.begin();
+            handler.handle(event);
+            input.end();
+            if (input.shouldCommit()) {
+                input.type = event.getEventType().getName();
+                input.figures = state.getFigures().size();
+                input.vertices = state.getNumberOfVertices();
+                input.commit();
+            }
+        };
+    }
+
+    private void drawGrid(GraphicsContext gc) {
+        double cellSize = viewport.getCellSize();
+        // pattern is anchored in the lattice origin, so it moves together with the view
+        gc.clearRect(0, 0, viewport.getWidth(), viewport.getHeight());
+        gc.setFill(new ImagePattern(getGridTile(cellSize), to_app_x(0), to_app_y(0), cellSize, cellSize, false));
+        gc.fillRect(0, 0, viewport.getWidth(), viewport.getHeight());
+    }
+
+    /**
+     * Returns image with one grid cell, it is rendered again only when the cell size changes (zoom)
+     * @param cellSize  size of the cell in pixels
+     * @return          image to fill the grid with
+     */
+    private WritableImage getGridTile(double cellSize) {
+        if (gridTile == null || gridTileCellSize != cellSize) {
+            int tile = (int) Math.ceil(cellSize);
+            Canvas tileCanvas = new Canvas(tile, tile);
+            GraphicsContext tileGc = tileCanvas.getGraphicsContext2D();
+            tileGc.setLineWidth(1);
+            tileGc.setStroke(Color.LIGHTGRAY);
+            tileGc.strokeLine(0, 0, 0, tile);
+            tileGc.strokeLine(0, 0, tile, 0);
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+            gridTile = tileCanvas.snapshot(parameters, null);
+            gridTileCellSize = cellSize;
+        }
+        return gridTile;
+    }
+
+    private void onMouseClicked(MouseEvent event) {
+        // other buttons and drags move the view
+        if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
+            return;
+        }
+        int x = to_state_x(event.getX());
+        int y = to_state_y(event.getY());
+        if (state.isClosingClick(y, x)) {
+            // the figure keeps its provisional color on the overlay until it is classified
+            pendingFigures.add(state.cancelDrawing());
+        } else {
+            int color = state.isDrawing() ? 0 : toArgb(defined_color == null ? getNextColor() : defined_color);
+            state.click(y, x, color);
+        }
+        requestOverlay();
+    }
+
+    /**
+     * Updates the labels after the classified figure was put on the board (on the FX thread, in the order
+     * the figures were closed)
+     * @param figure    figure taken from the drawing
+     * @param closed    false if its edges cross, the figure is being drawn again
+     */
+    private void onClassified(Figure figure, boolean closed) {
+        if (closed) {
+            placements = null;
+            updateDataLabel();
+            symmetryLabel.setText("Počet symetrií: " + state.getShapeIndex().getNumberOfSymmetries());
+            updateRemainingLabel();
+            newFigures.add(figure);
+        } else {
+            dataLabel.setText("Útvar sa nesmie pretínať");
+        }
+        requestOverlay();
+    }
+
+    private void onMouseMoved(MouseEvent event) {
+        mouseX = event.getX();
+        mouseY = event.getY();
+        hud.cursorAt((int) Math.floor(viewport.latticeY(mouseY)), (int) Math.floor(viewport.latticeX(mouseX)));
+        // only the overlay is repainted (once per frame), grid and finished figures stay on their own layers
+        requestOverlay();
+    }
+
+    private void onMousePressed(MouseEvent event) {
+        dragX = event.getX();
+        dragY = event.getY();
+    }
+
+    private void onMouseDragged(MouseEvent event) {
+        if (event.getButton() == MouseButton.PRIMARY) {
+            return;
+        }
+        viewport.pan(event.getX() - dragX, event.getY() - dragY);
+        dragX = event.getX();
+        dragY = event.getY();
+        requestRepaint();
+    }
+
+    private void onScroll(ScrollEvent event) {
+        if (event.getDeltaY() == 0) {
+            return;
+        }
+        viewport.zoomAt(event.getX(), event.getY(), event.getDeltaY() > 0 ? 1.1 : 1 / 1.1);
+        requestRepaint();
+    }
+
+    /**
+     * Requests repaint of all layers, it is needed only when the view changes (pan, zoom)
+     */
+    private void requestRepaint() {
+        repaintRequested = true;
+        renderTimer.start();
+    }
+
+    /**
+     * Requests redraw of the overlay (cursor moved, vertex added)
+     */
+    private void requestOverlay() {
+        overlayRequested = true;
+        renderTimer.start();
+    }
+
+    /**
+     * Requests redraw of the region of the figure, too many regions mean redraw of the whole figure layer
+     * @param figure    added, removed or recolored figure
+     */
+    private void requestRedraw(Figure figure) {
+        if (dirtyCount == MAX_DIRTY_REGIONS) {
+            figuresRequested = true;
+        } else {
+            dirtyRegions[4 * dirtyCount] = figure.getMinY();
+            dirtyRegions[4 * dirtyCount + 1] = figure.getMinX();
+            dirtyRegions[4 * dirtyCount + 2] = figure.getMaxY();
+            dirtyRegions[4 * dirtyCount + 3] = figure.getMaxX();
+            dirtyCount++;
+        }
+        renderTimer.start();
+    }
+
+    /**
+     * Render pass (on the pulse): draws everything requested since the last one, however many events came
+     */
+    private void render() {
+        renderTimer.stop();
+        if (repaintRequested) {
+            drawGrid(gridGc);
+            figuresRequested = true;
+            overlayRequested = true;
+        }
+        if (dirtyCount > 0) {
+            // new figures drawn over a redrawn region would be blended twice, so they are redrawn as regions too
+            for (Figure figure : newFigures) {
+                requestRedraw(figure);
+            }
+            newFigures.clear();
+        }
+        if (figuresRequested) {
+            redrawFigures(0, 0, viewport.getWidth(), viewport.getHeight());
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                redrawFigures(to_app_x(dirtyRegions[4 * i + 1]), to_app_y(dirtyRegions[4 * i]),
+                        to_app_x(dirtyRegions[4 * i + 3]), to_app_y(dirtyRegions[4 * i + 2]));
+            }
+            // the newest figures are on top, so they could be drawn without redrawing others
+            for (Figure figure : newFigures) {
+                draw_figure(figuresGc, figure);
+            }
+        }
+        newFigures.clear();
+        dirtyCount = 0;
+        repaintRequested = false;
+        figuresRequested = false;
+        if (overlayRequested) {
+            overlayRequested = false;
+            drawOverlay();
+        }
+    }
+
+    /**
+     * Redraws the overlay layer: figures being classified, the figure in progress and the line from its
+     * last vertex to the cursor
+     */
+    private void drawOverlay() {
+        overlayGc.clearRect(0, 0, overlayCanvas.getWidth(), overlayCanvas.getHeight());
+        for (Figure pending : pendingFigures.getFigures()) {
+            draw_figure(overlayGc, pending, true);
+        }
+        if (!highlighted.isEmpty()) {
+            drawHighlighted();
+        }
+        if (placements != null) {
+            drawNearestPlacement();
+        }
+        Figure current_figure = state.getCurrentFigure();
+        if (current_figure == null) {
+            return;
+        }
+        draw_figure(overlayGc, current_figure);
+        int last = current_figure.number_of_vertices() - 1;
+        overlayGc.setStroke(toColor(current_figure.getColor()));
+        overlayGc.strokeLine(
+                to_app_x(current_figure.getX(last)),
+                to_app_y(current_figure.getY(last)),
+                mouseX, mouseY);
+    }
+
+    /**
+     * Outlines visible figures of the highlighted classes, only the figures in the view are visited
+     */
+    private void drawHighlighted() {
+        ShapeIndex shapeIndex = state.getShapeIndex();
+        overlayGc.save();
+        overlayGc.setLineWidth(3);
+        overlayGc.setStroke(Color.BLACK);
+        overlayGc.setTransform(1, 0, 0, 1, to_app_x(0), to_app_y(0));
+        state.getBoard().forEachInRect(to_state_y(0) - 1, to_state_x(0) - 1,
+                to_state_y(viewport.getHeight()) + 1, to_state_x(viewport.getWidth()) + 1, f -> {
+                    if (highlighted.contains(shapeIndex.classOf(f))) {
+                        ScreenCache.Entry vertices = screenCache.get(f, viewport.getCellSize());
+                        overlayGc.strokePolygon(vertices.xs, vertices.ys, vertices.n);
+                    }
+                });
+        overlayGc.restore();
+    }
+
+    /**
+     * Outlines the free placement of the selected figure, that is the closest to the cursor
+     */
+    private void drawNearestPlacement() {
+        int i = placements.nearest(viewport.latticeY(mouseY), viewport.latticeX(mouseX));
+        if (i < 0) {
+            return;
+        }
+        Figure placement = placements.get(i, 0xff808080);
+        int n = placement.number_of_vertices();
+        double[] xs = new double[n], ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            xs[v] = to_app_x(placement.getX(v));
+            ys[v] = to_app_y(placement.getY(v));
+        }
+        overlayGc.save();
+        overlayGc.setLineWidth(2);
+        overlayGc.setLineDashes(6, 4);
+        overlayGc.setStroke(Color.GRAY);
+        overlayGc.strokePolygon(xs, ys, n);
+        overlayGc.restore();
+    }
+
+    /**
+     * Redraws finished figures only inside the given rectangle (in screen coordinates).
+     * Only chunks of the board intersecting the rectangle are visited, each one is clipped to its own area,
+     * so figures lying in several chunks are blended in the same order as when they were drawn
+     */
+    private void redrawFigures(double minX, double minY, double maxX, double maxY) {
+        // line width overlaps the bounding box
+        double margin = 2;
+        double x = Math.max(0, minX - margin), y = Math.max(0, minY - margin);
+        double w = Math.min(viewport.getWidth(), maxX + margin) - x;
+        double h = Math.min(viewport.getHeight(), maxY + margin) - y;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Events.Repaint event = new Events.Repaint();
+        event.begin();
+        int figuresDrawn = 0;
+        long verticesDrawn = 0;
+        figuresGc.clearRect(x, y, w, h);
+        figuresGc.save();
+        figuresGc.beginPath();
+        figuresGc.rect(x, y, w, h);
+        figuresGc.clip();
+        Board board = state.getBoard();
+        for (Figure f : board.getOversized()) {
+            draw_figure(figuresGc, f);
+            figuresDrawn++;
+            verticesDrawn += f.number_of_vertices();
+        }
+        int minChunkX = Board.chunkOf(to_state_x(x) - 1), maxChunkX = Board.chunkOf(to_state_x(x + w) + 1);
+        int minChunkY = Board.chunkOf(to_state_y(y) - 1), maxChunkY = Board.chunkOf(to_state_y(y + h) + 1);
+        for (int cy = minChunkY; cy <= maxChunkY; cy++) {
+            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+                List<Figure> chunk = board.getChunk(cy, cx);
+                if (chunk == null) {
+                    continue;
+                }
+                figuresGc.save();
+                figuresGc.beginPath();
+                figuresGc.rect(to_app_x(cx * Board.CHUNK_SIZE), to_app_y(cy * Board.CHUNK_SIZE),
+                        Board.CHUNK_SIZE * viewport.getCellSize(), Board.CHUNK_SIZE * viewport.getCellSize());
+                figuresGc.clip();
+                for (Figure f : chunk) {
+                    draw_figure(figuresGc, f);
+                    figuresDrawn++;
+                    verticesDrawn += f.number_of_vertices();
+                }
+                figuresGc.restore();
+            }
+        }
+        figuresGc.restore();
+        event.end();
+        boolean full = w >= viewport.getWidth() && h >= viewport.getHeight();
+        hud.redrawn(System.nanoTime() - start, full);
+        if (event.shouldCommit()) {
+            event.full = full;
+            event.width = w;
+            event.height = h;
+            event.figuresDrawn = figuresDrawn;
+            event.verticesDrawn = verticesDrawn;
+            event.commit();
+        }
+    }
+
+    private void handleKeyPress(KeyEvent event) {
+        if (event.getCode() == KeyCode.F3) {
+            hud.toggle();
+            return;
+        }
+        if (event.getCode() == KeyCode.BACK_SPACE) {
+            // unfinished figure is thrown away, otherwise the last command is undone
+            Figure cancelled = state.cancelDrawing();
+            if (cancelled != null) {
+                screenCache.remove(cancelled);
+                requestOverlay();
+            } else {
+                onFiguresChanged(state.undo());
+            }
+            return;
+        }
+        if (event.isShortcutDown() && (event.getCode() == KeyCode.Z || event.getCode() == KeyCode.Y)) {
+            boolean redo = event.getCode() == KeyCode.Y || event.isShiftDown();
+            onFiguresChanged(redo ? state.redo() : state.undo());
+            event.consume();
+            return;
+        }
+        if (event.getCode() == KeyCode.S) {
+            // the most similar classes to the figure under the cursor are outlined, S elsewhere clears them
+            highlighted.clear();
+            placements = null;
+            Figure figure = figureUnderCursor();
+            if (figure != null) {
+                List<SimilarityIndex.Neighbor<ShapeIndex.ShapeClass>> similar = state.getShapeIndex().similar(figure, SIMILAR_CLASSES);
+                for (SimilarityIndex.Neighbor<ShapeIndex.ShapeClass> neighbor : similar) {
+                    highlighted.add(neighbor.getValue());
+                }
+                dataLabel.setText(similar.isEmpty() ? "Žiadne podobné útvary" : String.format(
+                        "Podobné útvary: %d tried (vzdialenosť %.2f – %.2f)", similar.size(),
+                        similar.get(0).getDistance(), similar.get(similar.size() - 1).getDistance()));
+            }
+            requestOverlay();
+            return;
+        }
+        if (event.getCode() == KeyCode.P) {
+            // all copies of the figure under the cursor are outlined and the free placement closest to the cursor
+            // follows it, P elsewhere clears them
+            highlighted.clear();
+            placements = null;
+            Figure figure = figureUnderCursor();
+            if (figure != null) {
+                List<Figure> copies = PatternSearch.copies(state.getShapeIndex(), figure);
+                highlighted.add(state.getShapeIndex().classOf(figure));
+                int cursorY = (int) Math.floor(viewport.latticeY(mouseY)), cursorX = (int) Math.floor(viewport.latticeX(mouseX));
+                placements = PatternSearch.freePlacements(state.getBoard().getCoverage(), figure,
+                        Math.max(to_state_y(0), cursorY - SEARCH_RADIUS), Math.max(to_state_x(0), cursorX - SEARCH_RADIUS),
+                        Math.min(to_state_y(viewport.getHeight()), cursorY + SEARCH_RADIUS),
+                        Math.min(to_state_x(viewport.getWidth()), cursorX + SEARCH_RADIUS));
+                dataLabel.setText("Kópie útvaru: " + copies.size() + ", voľné miesta v okne: " + placements.size());
+            }
+            requestOverlay();
+            return;
+        }
+        if (event.getCode() == KeyCode.DELETE || event.getCode() == KeyCode.C) {
+            Figure figure = figureUnderCursor();
+            if (figure == null) {
+                return;
+            }
+            if (event.getCode() == KeyCode.DELETE) {
+                state.delete(figure);
+                onFiguresChanged(List.of(figure));
+            } else {
+                // the whole class takes the selected (or next random) color
+                state.recolor(figure, toArgb(defined_color == null ? getNextColor() : defined_color));
+                onFiguresChanged(state.getShapeIndex().classOf(figure).getMembers());
+            }
+            return;
+        }
+        // arrow keys move the view by a quarter of the screen
+        double step = viewport.getWidth() / 4;
+        switch (event.getCode()) {
+            case LEFT -> viewport.pan(step, 0);
+            case RIGHT -> viewport.pan(-step, 0);
+            case UP -> viewport.pan(0, step);
+            case DOWN -> viewport.pan(0, -step);
+            default -> {
+                return;
+            }
+        }
+        event.consume();
+        requestRepaint();
+    }
+
+    /**
+     * @return the top finished figure under the mouse cursor or null
+     */
+    private Figure figureUnderCursor() {
+        List<Figure> under = state.getBoard().figuresAt(viewport.latticeY(mouseY), viewport.latticeX(mouseX));
+        return under.isEmpty() ? null : under.get(under.size() - 1);
+    }
+
+    /**
+     * Updates labels and requests redraw of only regions of the changed figures (after undo, redo, delete or recolor).
+     * If too many figures changed, the whole figure layer is redrawn once instead of many small regions
+     * @param changed   figures, that were added, removed or recolored
+     */
+    private void onFiguresChanged(List<Figure> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        placements = null;
+        for (Figure figure : changed) {
+            // deleted or undone figures would stay cached until the next zoom
+            if (state.getFigure(figure.getSequence()) != figure) {
+                screenCache.remove(figure);
+            }
+        }
+        symmetryLabel.setText("Počet symetrií: " + state.getShapeIndex().getNumberOfSymmetries());
+        updateRemainingLabel();
+        updateDataLabel();
+        if (changed.size() > MAX_DIRTY_REGIONS) {
+            figuresRequested = true;
+            renderTimer.start();
+            return;
+        }
+        for (Figure figure : changed) {
+            requestRedraw(figure);
+        }
+    }
+
+    /**
+     * Shows area of the last figure and area covered by all figures (union and cells covered more than once)
+     */
+    private void updateDataLabel() {
+        Figure last_figure = state.getLastFigure();
+        if (last_figure == null) {
+            dataLabel.setText("");
+            return;
+        }
+        Coverage coverage = state.getBoard().getCoverage();
+        SymmetryGroup group = last_figure.getSymmetryGroup();
+        dataLabel.setText("Plocha posledného útvaru: " + last_figure.calculatePolygonArea() + " buniek²\n"
+                + "Jeho symetria: " + group.getName() + " (rotácia rádu " + group.rotationOrder()
+                + ", osí súmernosti: " + group.mirrorAxes() + ")\n"
+                + "Pokrytá plocha: " + coverage.getCoveredArea() + " buniek, prekrytá: " + coverage.getOverlapArea() + " buniek");
+    }
+
+    /**
+     * Shows how many distinct figures (up to MAX_VERTICES_TO_DISCOVER vertices) on the SIZE x SIZE grid
+     * were not drawn yet
+     */
+    private void updateRemainingLabel() {
+        if (possibleFigures < 0) {
+            return;
+        }
+        remainingLabel.setText("Zostáva objaviť: " + (possibleFigures - state.getDiscoveredFigures()) + " útvarov");
+        remainingLabel.setVisible(true);
+    }
+
+    private void draw_figure(GraphicsContext gc, Figure figure) {
+        draw_figure(gc, figure, figure.isFinished());
+    }
+
+    /**
+     * Draws the figure from its cached pixel-space vertices: closed figure is stroked and filled from the same
+     * arrays, unfinished one is only stroked. Cached vertices are scaled by the cell size, the origin of the view
+     * is applied by the transform, so panning does not recompute them
+     * @param gc        graphics context
+     * @param figure    figure to draw
+     * @param closed    true to draw the closing edge and fill the figure (also figures being classified)
+     */
+    private void draw_figure(GraphicsContext gc, Figure figure, boolean closed) {
+        ScreenCache.Entry vertices = screenCache.get(figure, viewport.getCellSize());
+        Color color = toColor(figure.getColor());
+        gc.setTransform(1, 0, 0, 1, to_app_x(0), to_app_y(0));
+        gc.setStroke(color);
+        if (closed) {
+            gc.strokePolygon(vertices.xs, vertices.ys, vertices.n);
+            gc.setFill(color);
+            gc.fillPolygon(vertices.xs, vertices.ys, vertices.n);
+        } else {
+            gc.strokePolyline(vertices.xs, vertices.ys, vertices.n);
+        }
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+    }
+
+    private void draw_figure_vertices(GraphicsContext gc, List<Cell> vertices, Color color) {
+        Random random = new Random();
+        double randomOffset = random.nextDouble(10);
+        for (int i = 1; i < vertices.size(); i++) {
+            Cell v1 = vertices.get(i - 1);
+            Cell v2 = vertices.get(i);
+            gc.setStroke(color);
+            gc.strokeLine(to_app_x(v1.getX())+randomOffset, to_app_y(v1.getY())+randomOffset, to_app_x(v2.getX())+randomOffset, to_app_y(v2.getY())+randomOffset);
+        }
+        Cell first = vertices.get(0);
+        Cell last = vertices.get(vertices.size()-1);
+        gc.strokeLine(to_app_x(first.getX())+randomOffset, to_app_y(first.getY())+randomOffset, to_app_x(last.getX())+randomOffset, to_app_y(last.getY())+randomOffset);
+    }
+
+    private static Color getNextColor() {
+        Color nextColor = COLORS.get(colorIndex);
+        colorIndex = (colorIndex + 1) % COLORS.size();
+        return nextColor;
+    }
+
+    private static Color getRandomDimColor() {
+        List<Color> dimColors = new ArrayList<>();
+        dimColors.add(Color.RED);
+        dimColors.add(Color.BLUE);
+        dimColors.add(Color.GREEN);
+        dimColors.add(Color.YELLOW);
+        dimColors.add(Color.ORANGE);
+        dimColors.add(Color.PURPLE);
+        dimColors.add(Color.CYAN);
+        dimColors.add(Color.MAGENTA);
+        dimColors.add(Color.BROWN);
+        dimColors.add(Color.PINK);
+        dimColors.add(Color.LIME);
+        dimColors.add(Color.INDIGO);
+        dimColors.add(Color.GOLD);
+        dimColors.add(Color.CRIMSON);
+        dimColors.add(Color.AQUAMARINE);
+
+        Random random = new Random();
+        int randomIndex = random.nextInt(dimColors.size());
+        return dimColors.get(randomIndex);
+    }
+
+    private static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    private Color toColor(int argb) {
+        int slot = (argb ^ (argb >>> 16)) & (COLOR_SLOTS - 1);
+        Color color = colorValues[slot];
+        if (color == null || colorKeys[slot] != argb) {
+            color = colorCache.computeIfAbsent(argb, c -> Color.rgb(
+                    (c >> 16) & 0xff, (c >> 8) & 0xff, c & 0xff, ((c >>> 24) & 0xff) / 255.0));
+            colorKeys[slot] = argb;
+            colorValues[slot] = color;
+        }
+        return color;
+    }
+
+    private int to_state_x(double coordinate) {
+        return viewport.toLatticeX(coordinate);
+    }
+
+    private int to_state_y(double coordinate) {
+        return viewport.toLatticeY(coordinate);
+    }
+
+    private double to_app_x(int coordinate) {
+        return viewport.toScreenX(coordinate);
+    }
+
+    private double to_app_y(int coordinate) {
+        return viewport.toScreenY(coordinate);
+    }
+
+    /**
+     * Loads figures saved in the session directory, the game works without saving if it fails
+     * @param directory directory of the session
+     */
+    private void openSession(Path directory) {
+        try {
+            session = new SessionStore(directory);
+            session.load(state);
+        } catch (IOException e) {
+            System.err.println("Session could not be loaded: " + e.getMessage());
+            session = null;
+            return;
+        }
+        // every change (also undo and redo) is appended to the journal
+        state.setListener(new GameState.Listener() {
+            @Override
+            public void figureAdded(Figure figure) {
+                try {
+                    session.journalAdd(figure);
+                } catch (IOException e) {
+                    System.err.println("Figure could not be saved: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void figureRemoved(Figure figure) {
+                try {
+                    session.journalDelete(figure);
+                } catch (IOException e) {
+                    System.err.println("Removal could not be saved: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void classRecolored(Figure member, int color) {
+                try {
+                    session.journalRecolor(member, color);
+                } catch (IOException e) {
+                    System.err.println("Color could not be saved: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the whole session into one snapshot, so the journal does not grow forever
+     */
+    @Override
+    public void stop() {
+        // figures still being classified are waited for, so they are saved too
+        pendingFigures.finish();
+        if (session == null) {
+            return;
+        }
+        try {
+            session.save(state);
+            session.close();
+        } catch (IOException e) {
+            System.err.println("Session could not be saved: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
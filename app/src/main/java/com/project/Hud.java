@@ -0,0 +1,122 @@
+package com.project;
+
+import com.project.engine.GameState;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Label;
+
+/**
+ * Performance overlay (toggled by F3): frame time, duration of the last classification and redraw,
+ * number of figures and vertices on the board and the number of figures covering the cell under the cursor.
+ * Frame time is measured between JavaFX pulses, the timer runs only while the overlay is visible,
+ * so the hidden overlay costs nothing.
+ */
+public class Hud {
+    /**
+     * How often the text is updated (nanoseconds), updating it on every pulse would cost a layout pass per frame
+     */
+    private static final long UPDATE_INTERVAL = 250_000_000L;
+
+    private final Label label = new Label("");
+    private final GameState state;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onPulse(now);
+        }
+    };
+    private long lastPulse = -1;
+    private long lastUpdate = 0;
+    /**
+     * Frame time in milliseconds (exponential moving average)
+     */
+    private double frameMillis = 0;
+    private long lastRedrawNanos = 0;
+    private boolean lastRedrawFull = false;
+    /**
+     * Cell under the cursor
+     */
+    private int cursorY, cursorX;
+
+    /**
+     * Class constructor, the overlay is hidden.
+     * @param state     game state to show the counts of
+     */
+    public Hud(GameState state) {
+        this.state = state;
+        label.setStyle("-fx-background-color: white; -fx-padding: 5px; -fx-font-family: monospace;");
+        label.setVisible(false);
+        label.setMouseTransparent(true);
+    }
+
+    /**
+     * @return label to put on the canvas
+     */
+    public Label getLabel() {
+        return label;
+    }
+
+    /**
+     * Shows or hides the overlay
+     */
+    public void toggle() {
+        boolean visible = !label.isVisible();
+        label.setVisible(visible);
+        if (visible) {
+            lastPulse = -1;
+            frameMillis = 0;
+            update();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    /**
+     * @return true if the overlay is shown
+     */
+    public boolean isVisible() {
+        return label.isVisible();
+    }
+
+    /**
+     * Remembers duration of the redraw of finished figures
+     * @param nanos duration in nanoseconds
+     * @param full  true if the whole view was redrawn
+     */
+    public void redrawn(long nanos, boolean full) {
+        lastRedrawNanos = nanos;
+        lastRedrawFull = full;
+    }
+
+    /**
+     * Remembers the cell under the cursor
+     * @param y     y coordinate of the cell
+     * @param x     x coordinate of the cell
+     */
+    public void cursorAt(int y, int x) {
+        cursorY = y;
+        cursorX = x;
+    }
+
+    private void onPulse(long now) {
+        if (lastPulse >= 0) {
+            double millis = (now - lastPulse) / 1e6;
+            frameMillis = frameMillis == 0 ? millis : 0.9 * frameMillis + 0.1 * millis;
+        }
+        lastPulse = now;
+        if (now - lastUpdate >= UPDATE_INTERVAL) {
+            lastUpdate = now;
+            update();
+        }
+    }
+
+    private void update() {
+        label.setText(String.format("snímka: %.1f ms%nklasifikácia: %.3f ms%nprekreslenie (%s): %.2f ms%nútvary: %d%nvrcholy: %d%npod kurzorom: %d",
+                frameMillis,
+                state.getLastClassifyNanos() / 1e6,
+                lastRedrawFull ? "celé" : "časť", lastRedrawNanos / 1e6,
+                state.getFigures().size(),
+                state.getNumberOfVertices(),
+                state.getBoard().getCoverage().coverage(cursorY, cursorX)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.project;
+
+import com.project.engine.Figure;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Pixel-space vertices of the drawn figures, so redrawing a figure does not convert its vertices
+ * or allocate arrays again. Vertices are only scaled by the cell size, not moved by the origin of the view
+ * (the graphics context is translated instead), so panning keeps the cache and only zooming clears it.
+ * Figures are compared by identity (congruent figures are equal, but they lie elsewhere).
+ * The cache is bounded: when it grows over the capacity, it is cleared and filled again by the visible figures.
+ * Figures leaving the board (deleted, undone or cancelled) are removed one by one, see {@link #remove(Figure)}.
+ */
+public class ScreenCache {
+    /**
+     * Scaled vertices of one figure
+     */
+    public static final class Entry {
+        double[] xs = new double[8];
+        double[] ys = new double[8];
+        /**
+         * Number of valid vertices (unfinished figure gets new vertices)
+         */
+        int n = -1;
+    }
+
+    private final Map<Figure, Entry> entries = new IdentityHashMap<>();
+    private final int capacity;
+    private double cellSize = -1;
+
+    /**
+     * Class constructor specifying max number of cached figures.
+     * @param capacity  max number of cached figures
+     */
+    public ScreenCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns scaled vertices of the figure (x * cellSize, y * cellSize), they are computed only if the figure
+     * is not cached yet, the cell size changed or the figure got new vertices
+     * @param figure    figure to draw
+     * @param cellSize  size of one cell in pixels
+     * @return          cached vertices (do not modify)
+     */
+    public Entry get(Figure figure, double cellSize) {
+        if (cellSize != this.cellSize) {
+            entries.clear();
+            this.cellSize = cellSize;
+        }
+        Entry entry = entries.get(figure);
+        if (entry == null) {
+            if (entries.size() >= capacity) {
+                entries.clear();
+            }
+            entry = new Entry();
+            entries.put(figure, entry);
+        }
+        int n = figure.number_of_vertices();
+        if (entry.n != n) {
+            if (entry.xs.length < n) {
+                entry.xs = new double[Math.max(n, 2 * entry.xs.length)];
+                entry.ys = new double[entry.xs.length];
+            }
+            for (int i = 0; i < n; i++) {
+                entry.xs[i] = figure.getX(i) * cellSize;
+                entry.ys[i] = figure.getY(i) * cellSize;
+            }
+            entry.n = n;
+        }
+        return entry;
+    }
+
+    /**
+     * Forgets the figure (e.g. deleted from the board)
+     * @param figure    cached figure
+     */
+    public void remove(Figure figure) {
+        entries.remove(figure);
+    }
+}
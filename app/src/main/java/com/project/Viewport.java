@@ -0,0 +1,161 @@
+package com.project;
+
+/**
+ * Visible part of the (unbounded) lattice.
+ * Converts lattice coordinates to screen pixels and back, supports panning and zooming,
+ * so only the visible rectangle has to be rendered
+ */
+public class Viewport {
+    /**
+     * Minimal and maximal size of one cell in pixels
+     */
+    public static final double MIN_CELL_SIZE = 4;
+    public static final double MAX_CELL_SIZE = 200;
+
+    /**
+     * Size of one cell in pixels (CELL_SIZE * zoom)
+     */
+    private double cellSize;
+    /**
+     * Lattice coordinates of the top left corner of the screen
+     */
+    private double originX, originY;
+    /**
+     * Size of the screen in pixels
+     */
+    private double width, height;
+
+    /**
+     * Class constructor specifying cell size and screen size, the origin of the lattice is in the top left corner.
+     * @param cellSize  size of one cell in pixels
+     * @param width     width of the screen in pixels
+     * @param height    height of the screen in pixels
+     */
+    public Viewport(double cellSize, double width, double height) {
+        this.cellSize = cellSize;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @param x     lattice x coordinate
+     * @return      screen x coordinate
+     */
+    public double toScreenX(double x) {
+        return (x - originX) * cellSize;
+    }
+
+    /**
+     * @param y     lattice y coordinate
+     * @return      screen y coordinate
+     */
+    public double toScreenY(double y) {
+        return (y - originY) * cellSize;
+    }
+
+    /**
+     * @param screenX   screen x coordinate
+     * @return          x coordinate of the nearest lattice point
+     */
+    public int toLatticeX(double screenX) {
+        return (int) Math.round(screenX / cellSize + originX);
+    }
+
+    /**
+     * @param screenY   screen y coordinate
+     * @return          y coordinate of the nearest lattice point
+     */
+    public int toLatticeY(double screenY) {
+        return (int) Math.round(screenY / cellSize + originY);
+    }
+
+    /**
+     * @param screenX   screen x coordinate
+     * @return          exact (not rounded) lattice x coordinate
+     */
+    public double latticeX(double screenX) {
+        return screenX / cellSize + originX;
+    }
+
+    /**
+     * @param screenY   screen y coordinate
+     * @return          exact (not rounded) lattice y coordinate
+     */
+    public double latticeY(double screenY) {
+        return screenY / cellSize + originY;
+    }
+
+    /**
+     * Moves the viewport by given number of pixels
+     * @param dx    horizontal shift in pixels
+     * @param dy    vertical shift in pixels
+     */
+    public void pan(double dx, double dy) {
+        originX -= dx / cellSize;
+        originY -= dy / cellSize;
+    }
+
+    /**
+     * Zooms the viewport, the lattice point under (screenX, screenY) stays on its place
+     * @param screenX   screen x coordinate of the zoom center
+     * @param screenY   screen y coordinate of the zoom center
+     * @param factor    zoom factor (greater than 1 zooms in)
+     */
+    public void zoomAt(double screenX, double screenY, double factor) {
+        double newCellSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, cellSize * factor));
+        double x = screenX / cellSize + originX;
+        double y = screenY / cellSize + originY;
+        cellSize = newCellSize;
+        originX = x - screenX / cellSize;
+        originY = y - screenY / cellSize;
+    }
+
+    /**
+     * @return size of one cell in pixels
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return screen width in pixels
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return screen height in pixels
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * @return min visible lattice x
+     */
+    public int getMinX() {
+        return (int) Math.floor(originX);
+    }
+
+    /**
+     * @return min visible lattice y
+     */
+    public int getMinY() {
+        return (int) Math.floor(originY);
+    }
+
+    /**
+     * @return max visible lattice x
+     */
+    public int getMaxX() {
+        return (int) Math.ceil(originX + width / cellSize);
+    }
+
+    /**
+     * @return max visible lattice y
+     */
+    public int getMaxY() {
+        return (int) Math.ceil(originY + height / cellSize);
+    }
+}
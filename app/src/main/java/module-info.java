@@ -4,6 +4,8 @@ module com.example.project {
 
     requires org.controlsfx.controls;
 
+    requires com.project.engine;
+
     opens com.example.project to javafx.fxml;
     exports com.example.project;
     exports com.project;
@@ -0,0 +1,83 @@
+package com.project.benchmarks;
+
+import com.project.engine.Figure;
+import com.project.engine.GameState;
+import com.project.engine.PolygonEnumerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The click path of the game without the UI ({@link GameState#click(int, int, int)}, the same one
+ * the game runs from onMouseClicked): all vertices of a figure are clicked, the figure is closed,
+ * classified and put on the board with already existing figures. Then it is removed by undo,
+ * so the board keeps its size between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickPathBenchmark {
+    /**
+     * Number of distinct shapes on the board, the rest are their moved copies
+     */
+    private static final int SHAPES = 50;
+    /**
+     * Distance between figures on the board
+     */
+    private static final int SPACING = 64;
+
+    @Param({"10", "1000", "100000"})
+    int boardFigures;
+
+    @Param({"4", "16", "64"})
+    int vertices;
+
+    private GameState state;
+    private int[] clicked;
+
+    @Setup
+    public void setup() {
+        state = new GameState(new PolygonEnumerator(20, 3));
+        int side = (int) Math.ceil(Math.sqrt(boardFigures));
+        for (int i = 0; i < boardFigures; i++) {
+            int shape = i % SHAPES;
+            int[] coords = Polygons.star(3 + shape % 13, shape);
+            int dy = (i / side) * SPACING, dx = (i % side) * SPACING;
+            for (int v = 0; v < coords.length; v += 2) {
+                state.click(coords[v] + dy, coords[v + 1] + dx, 0xff000000 | i);
+            }
+            if (state.click(coords[0] + dy, coords[1] + dx, 0) == null) {
+                throw new IllegalStateException("figure was not closed");
+            }
+        }
+        // new figure is drawn over the existing ones in the middle of the board
+        int middle = side / 2 * SPACING;
+        clicked = Polygons.star(vertices, 7);
+        for (int v = 0; v < clicked.length; v++) {
+            clicked[v] += middle;
+        }
+    }
+
+    @Benchmark
+    public Figure closeAndUndo() {
+        for (int v = 0; v < clicked.length; v += 2) {
+            state.click(clicked[v], clicked[v + 1], 0xff0000ff);
+        }
+        Figure closed = state.click(clicked[0], clicked[1], 0);
+        state.undo();
+        return closed;
+    }
+}
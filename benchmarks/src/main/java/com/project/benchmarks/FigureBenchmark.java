@@ -0,0 +1,89 @@
+package com.project.benchmarks;
+
+import com.project.engine.Cell;
+import com.project.engine.Figure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the operations on one figure depending on its number of vertices:
+ * canonical key (done once when the figure is closed), the old symmetry sets,
+ * equals/hashCode of congruent figures and area
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FigureBenchmark {
+    @Param({"4", "16", "64", "256", "1000"})
+    int vertices;
+    /**
+     * Figure with all 8 symmetries (its number of vertices is rounded up to a multiple of 8),
+     * it has only one distinct image, so key and symmetry sets have less work
+     */
+    @Param({"false", "true"})
+    boolean symmetric;
+
+    private int[] coords;
+    private Figure figure;
+    /**
+     * Rotated and moved copy of the figure, so equals has to compare the whole key
+     */
+    private Figure congruent;
+
+    @Setup
+    public void setup() {
+        coords = symmetric ? Polygons.symmetricStar(vertices, 42) : Polygons.star(vertices, 42);
+        figure = Polygons.figure(coords);
+        congruent = Polygons.figure(Polygons.rotatedCopy(coords, 17, 1000));
+        if (!figure.equals(congruent)) {
+            throw new IllegalStateException("copy is not congruent: " + figure);
+        }
+    }
+
+    /**
+     * Building the finished figure, including its canonical key
+     */
+    @Benchmark
+    public Figure canonicalKey() {
+        return new Figure(coords, coords.length / 2);
+    }
+
+    /**
+     * All rotations and reflections of the figure (includes all permutations of its vertices)
+     */
+    @Benchmark
+    public Set<List<Cell>> allSymmetries() {
+        return figure.getAllSymmetries();
+    }
+
+    @Benchmark
+    public boolean equalsCongruent() {
+        return figure.equals(congruent);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return congruent.hashCode();
+    }
+
+    @Benchmark
+    public double area() {
+        return figure.calculatePolygonArea();
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.benchmarks;
+
+import java.io.PrintStream;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds: every power of two is split into 8 buckets,
+ * so the relative error of a percentile is at most 12.5 %. Recording is one array increment, nothing is allocated.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total = 0;
+    private long max = 0;
+    private long sum = 0;
+
+    /**
+     * @param nanos latency in nanoseconds
+     */
+    void record(long nanos) {
+        counts[bucket(Math.max(nanos, 0))]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return upper bound of the bucket (the value reported for percentiles)
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * @param percentile    percentile (0-100)
+     * @return              latency in nanoseconds, that is not exceeded by the percentile of recorded values
+     */
+    long percentile(double percentile) {
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    long getCount() {
+        return total;
+    }
+
+    /**
+     * Prints one line with the count, mean and percentiles in microseconds
+     * @param out   output stream
+     * @param name  name of the operation
+     */
+    void print(PrintStream out, String name) {
+        if (total == 0) {
+            return;
+        }
+        out.printf("%-10s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n", name, total, sum / 1e3 / total,
+                percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3, percentile(99.9) / 1e3, max / 1e3);
+    }
+
+    /**
+     * Prints the header of {@link #print(PrintStream, String)}
+     * @param out   output stream
+     */
+    static void printHeader(PrintStream out) {
+        out.printf("%-10s %10s %10s %10s %10s %10s %10s %10s%n", "operation", "count", "mean us", "p50 us", "p90 us",
+                "p99 us", "p99.9 us", "max us");
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.benchmarks;
+
+import com.project.engine.Figure;
+import com.project.engine.SymmetryGroup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Deterministic test polygons for the benchmarks
+ */
+final class Polygons {
+    private Polygons() {
+    }
+
+    /**
+     * Random star-shaped polygon: vertices go around the center with growing angle and random radius,
+     * so the polygon is always simple. Radius is big enough, that the rounding to the lattice
+     * does not merge or reorder vertices.
+     * @param n     number of vertices
+     * @param seed  seed of the random generator
+     * @return      packed vertices (y, x pairs)
+     */
+    static int[] star(int n, long seed) {
+        Random random = new Random(seed);
+        int radius = 2 * n + 8;
+        int[] coords = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            double r = radius * (0.5 + 0.5 * random.nextDouble());
+            coords[2 * i] = radius + (int) Math.round(r * Math.sin(angle));
+            coords[2 * i + 1] = radius + (int) Math.round(r * Math.cos(angle));
+        }
+        return coords;
+    }
+
+    /**
+     * Random star-shaped polygon with all 8 symmetries of the square: vertices are generated in the first eighth
+     * (strictly between 0 and 45 degrees, so no vertex lies on a mirror axis) and copied by all rotations
+     * and reflections
+     * @param n     number of vertices, rounded up to a multiple of 8
+     * @param seed  seed of the random generator
+     * @return      packed vertices (y, x pairs)
+     */
+    static int[] symmetricStar(int n, long seed) {
+        Random random = new Random(seed);
+        int k = Math.max(1, (n + 7) / 8);
+        int radius = 8 * k + 8;
+        int[][] points = new int[8 * k][];
+        for (int i = 0; i < k; i++) {
+            double angle = Math.PI / 4 * (i + 0.5) / k;
+            double r = radius * (0.6 + 0.4 * random.nextDouble());
+            int y = (int) Math.round(r * Math.sin(angle));
+            int x = (int) Math.round(r * Math.cos(angle));
+            for (int transform = 0; transform < 8; transform++) {
+                points[8 * i + transform] = new int[]{SymmetryGroup.transformY(transform, y, x), SymmetryGroup.transformX(transform, y, x)};
+            }
+        }
+        Arrays.sort(points, Comparator.comparingDouble(p -> Math.atan2(p[0], p[1])));
+        int[] coords = new int[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coords[2 * i] = radius + points[i][0];
+            coords[2 * i + 1] = radius + points[i][1];
+        }
+        return coords;
+    }
+
+    /**
+     * Copy of the polygon rotated by 90 degrees and moved, the copy is congruent with the original
+     * @param coords    packed vertices
+     * @param dy        shift in y
+     * @param dx        shift in x
+     * @return          packed vertices of the copy
+     */
+    static int[] rotatedCopy(int[] coords, int dy, int dx) {
+        int[] copy = new int[coords.length];
+        for (int i = 0; i < coords.length; i += 2) {
+            copy[i] = coords[i + 1] + dy;
+            copy[i + 1] = -coords[i] + dx;
+        }
+        return copy;
+    }
+
+    static Figure figure(int[] coords) {
+        return new Figure(coords, coords.length / 2);
+    }
+}
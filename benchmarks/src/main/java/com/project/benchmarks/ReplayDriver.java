@@ -0,0 +1,238 @@
+package com.project.benchmarks;
+
+import com.project.engine.Figure;
+import com.project.engine.GameState;
+import com.project.engine.ShapeIndex;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Headless replay of a generated {@link Workload} at full speed, through the same calls the game makes
+ * from onMouseClicked and handleKeyPress (the closing click is classified on the calling thread instead of
+ * the classifier thread). Reports operations per second, latency histograms of vertex clicks, closing clicks
+ * and keys, allocated bytes and heap growth. With --check the classes of all figures left on the board are compared
+ * with a reference congruence test, that tries all 8 rotations and reflections and shares no code with the engine's
+ * canonical keys, so a faster engine could be proven to classify the same way.
+ * Usage: java -cp benchmarks.jar com.project.benchmarks.ReplayDriver [--seed N] [--figures N] [--vertices N]
+ * [--mix random|congruent|mixed] [--undo P] [--cancel P] [--warmup N] [--check]
+ */
+public class ReplayDriver {
+    /**
+     * Latencies of one replay
+     */
+    private static final class Result {
+        final LatencyHistogram vertices = new LatencyHistogram();
+        final LatencyHistogram closes = new LatencyHistogram();
+        final LatencyHistogram keys = new LatencyHistogram();
+        long nanos;
+        int rejected = 0;
+    }
+
+    private final Workload workload;
+
+    /**
+     * Class constructor specifying the workload.
+     * @param workload  operations to replay
+     */
+    ReplayDriver(Workload workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * Replays all operations on the state
+     * @param state     empty game state
+     * @return          latencies
+     */
+    private Result replay(GameState state) {
+        Result result = new Result();
+        int color = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < workload.size(); i++) {
+            long begin = System.nanoTime();
+            switch (workload.type(i)) {
+                case Workload.CLICK -> {
+                    int y = workload.y(i), x = workload.x(i);
+                    if (state.isClosingClick(y, x)) {
+                        Figure figure = state.cancelDrawing();
+                        if (state.classify(figure)) {
+                            state.addClosed(figure);
+                        } else {
+                            state.continueDrawing(figure);
+                            result.rejected++;
+                        }
+                        result.closes.record(System.nanoTime() - begin);
+                    } else {
+                        state.click(y, x, state.isDrawing() ? 0 : 0xff000000 | (color++ * 0x9e3779));
+                        result.vertices.record(System.nanoTime() - begin);
+                    }
+                }
+                case Workload.BACKSPACE -> {
+                    if (state.cancelDrawing() == null) {
+                        state.undo();
+                    }
+                    result.keys.record(System.nanoTime() - begin);
+                }
+                case Workload.REDO -> {
+                    state.redo();
+                    result.keys.record(System.nanoTime() - begin);
+                }
+                default -> throw new IllegalStateException("unknown operation " + workload.type(i));
+            }
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Compares the classes of the index with the reference: figures are congruent if their reference keys
+     * are equal, so every class of the index has to match exactly one reference class and the other way round
+     * @param state     state after the replay
+     * @return          number of figures, whose class does not match
+     */
+    static int crossCheck(GameState state) {
+        Map<String, ShapeIndex.ShapeClass> byReference = new HashMap<>();
+        Map<ShapeIndex.ShapeClass, String> byClass = new HashMap<>();
+        int mismatches = 0;
+        for (Figure figure : state.getFigures()) {
+            String reference = referenceKey(figure);
+            ShapeIndex.ShapeClass shapeClass = state.getShapeIndex().classOf(figure);
+            ShapeIndex.ShapeClass expected = byReference.putIfAbsent(reference, shapeClass);
+            String expectedReference = byClass.putIfAbsent(shapeClass, reference);
+            if ((expected != null && expected != shapeClass) || (expectedReference != null && !expectedReference.equals(reference))) {
+                if (mismatches < 10) {
+                    System.out.println("class mismatch: " + figure);
+                }
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Reference congruence key, written independently of the engine: vertices lying between two neighbours
+     * on the same horizontal or vertical line are dropped (the engine does not count them either), then the smallest
+     * vertex sequence over all 8 rotations and reflections, all start vertices and both directions is taken,
+     * each image moved to the origin. O(n^2) per figure, only for checking
+     * @param figure    finished figure
+     * @return          the same string for congruent figures, different ones otherwise
+     */
+    static String referenceKey(Figure figure) {
+        int n = figure.number_of_vertices();
+        int[] ys = new int[n], xs = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int prev = (i + n - 1) % n, next = (i + 1) % n;
+            int y = figure.getY(i), x = figure.getX(i);
+            boolean horizontal = figure.getY(prev) == y && figure.getY(next) == y;
+            boolean vertical = figure.getX(prev) == x && figure.getX(next) == x;
+            if (!horizontal && !vertical) {
+                ys[m] = y;
+                xs[m] = x;
+                m++;
+            }
+        }
+        String best = null;
+        int[] ty = new int[m], tx = new int[m];
+        for (int transform = 0; transform < 8; transform++) {
+            int minY = Integer.MAX_VALUE, minX = Integer.MAX_VALUE;
+            for (int i = 0; i < m; i++) {
+                // bit 4: swap the axes, bit 2: negate y, bit 1: negate x
+                int y = (transform & 4) != 0 ? xs[i] : ys[i];
+                int x = (transform & 4) != 0 ? ys[i] : xs[i];
+                ty[i] = (transform & 2) != 0 ? -y : y;
+                tx[i] = (transform & 1) != 0 ? -x : x;
+                minY = Math.min(minY, ty[i]);
+                minX = Math.min(minX, tx[i]);
+            }
+            for (int start = 0; start < m; start++) {
+                for (int direction = -1; direction <= 1; direction += 2) {
+                    StringBuilder key = new StringBuilder();
+                    for (int k = 0; k < m; k++) {
+                        int i = Math.floorMod(start + direction * k, m);
+                        key.append(ty[i] - minY).append(',').append(tx[i] - minX).append(' ');
+                    }
+                    String candidate = key.toString();
+                    if (best == null || candidate.compareTo(best) < 0) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    public static void main(String[] args) {
+        long seed = 1;
+        int figures = 100_000;
+        int vertices = 12;
+        Workload.Mix mix = Workload.Mix.MIXED;
+        double undo = 0.1, cancel = 0.05;
+        int warmup = 3;
+        boolean check = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : i + 1 < args.length ? args[i + 1] : "";
+            String name = arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg;
+            if (!arg.contains("=") && !name.equals("--check")) i++;
+            switch (name) {
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--figures" -> figures = Integer.parseInt(value);
+                case "--vertices" -> vertices = Math.max(3, Integer.parseInt(value));
+                case "--mix" -> mix = Workload.Mix.valueOf(value.toUpperCase());
+                case "--undo" -> undo = Double.parseDouble(value);
+                case "--cancel" -> cancel = Double.parseDouble(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--check" -> check = true;
+                default -> {
+                    System.err.println("Usage: ReplayDriver [--seed N] [--figures N] [--vertices N] [--mix random|congruent|mixed]"
+                            + " [--undo P] [--cancel P] [--warmup N] [--check]");
+                    System.exit(2);
+                }
+            }
+        }
+        Workload workload = Workload.generate(seed, figures, vertices, mix, undo, cancel);
+        ReplayDriver driver = new ReplayDriver(workload);
+        System.out.printf("seed %d, %d operations, %d figures up to %d vertices, mix %s%n",
+                seed, workload.size(), workload.getFigures(), vertices, mix.name().toLowerCase());
+        for (int i = 0; i < warmup; i++) {
+            driver.replay(new GameState());
+        }
+
+        GameState state = new GameState();
+        long heapBefore = usedHeap();
+        long allocatedBefore = allocatedBytes();
+        Result result = driver.replay(state);
+        long allocated = allocatedBytes() - allocatedBefore;
+        long heapGrowth = usedHeap() - heapBefore;
+
+        System.out.printf("%.0f ops/s, %.1f ms total, %d figures on the board in %d classes, %d rejected%n",
+                workload.size() / (result.nanos / 1e9), result.nanos / 1e6,
+                state.getFigures().size(), state.getShapeIndex().numberOfClasses(), result.rejected);
+        LatencyHistogram.printHeader(System.out);
+        result.vertices.print(System.out, "vertex");
+        result.closes.print(System.out, "close");
+        result.keys.print(System.out, "key");
+        System.out.printf("allocated %.1f MB (%.0f B/op), heap growth %.1f MB (%.0f B/figure)%n",
+                allocated / 1e6, (double) allocated / workload.size(), heapGrowth / 1e6,
+                (double) heapGrowth / Math.max(1, state.getFigures().size()));
+        if (check) {
+            int mismatches = crossCheck(state);
+            System.out.println(mismatches == 0 ? "cross-check: ok" : "cross-check: " + mismatches + " figures in a wrong class");
+            if (mismatches > 0) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.project.benchmarks;
+
+import com.project.engine.Geometry;
+import com.project.engine.SymmetryGroup;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reproducible stream of user operations for {@link ReplayDriver}: clicks on lattice points and Backspace/redo keys,
+ * generated from a seed. Every figure is clicked vertex by vertex and closed by clicking its first vertex again,
+ * some figures are thrown away before closing (Backspace while drawing) and some are undone right after closing.
+ * Operations are kept in primitive arrays, so a long workload does not disturb the measured heap.
+ */
+final class Workload {
+    static final int CLICK = 0;
+    /**
+     * Backspace: throws away the figure being drawn, otherwise undoes the last command
+     */
+    static final int BACKSPACE = 1;
+    /**
+     * Ctrl+Y
+     */
+    static final int REDO = 2;
+
+    /**
+     * How figures are generated
+     */
+    enum Mix {
+        /**
+         * Every figure is a new random polygon, almost no two of them are congruent
+         */
+        RANDOM,
+        /**
+         * Figures are rotated, reflected and moved copies of a few shapes (big congruence classes)
+         */
+        CONGRUENT,
+        /**
+         * Half of the figures are random, half are copies
+         */
+        MIXED
+    }
+
+    /**
+     * Number of distinct shapes in the congruent mix
+     */
+    private static final int POOL = 16;
+
+    private int[] types = new int[1024];
+    private int[] ys = new int[1024];
+    private int[] xs = new int[1024];
+    private int size = 0;
+    private int figures = 0;
+
+    private Workload() {
+    }
+
+    /**
+     * Generates the workload, the same arguments always give the same operations
+     * @param seed          seed of the random generator
+     * @param figures       number of figures to draw
+     * @param maxVertices   max number of vertices of one figure (at least 3)
+     * @param mix           how figures are generated
+     * @param undoRate      probability, that a closed figure is undone (and half of them redone)
+     * @param cancelRate    probability, that a figure is thrown away before it is closed
+     * @return              the workload
+     */
+    static Workload generate(long seed, int figures, int maxVertices, Mix mix, double undoRate, double cancelRate) {
+        Random random = new Random(seed);
+        Workload workload = new Workload();
+        // figures are spread over a square, so the board has many chunks, but figures still overlap
+        int spread = (int) Math.ceil(Math.sqrt(figures)) * 2 * maxVertices;
+        int[][] pool = new int[POOL][];
+        for (int i = 0; i < POOL; i++) {
+            pool[i] = simplePolygon(random, 3 + random.nextInt(maxVertices - 2));
+        }
+        for (int f = 0; f < figures; f++) {
+            boolean copy = mix == Mix.CONGRUENT || (mix == Mix.MIXED && random.nextBoolean());
+            int[] coords = copy
+                    ? transformedCopy(random, pool[random.nextInt(POOL)])
+                    : simplePolygon(random, 3 + random.nextInt(maxVertices - 2));
+            int n = coords.length / 2;
+            int dy = random.nextInt(spread), dx = random.nextInt(spread);
+            if (random.nextDouble() < cancelRate) {
+                int clicked = 1 + random.nextInt(n);
+                for (int v = 0; v < clicked; v++) {
+                    workload.add(CLICK, coords[2 * v] + dy, coords[2 * v + 1] + dx);
+                }
+                workload.add(BACKSPACE, 0, 0);
+                continue;
+            }
+            for (int v = 0; v <= n; v++) {
+                workload.add(CLICK, coords[2 * (v % n)] + dy, coords[2 * (v % n) + 1] + dx);
+            }
+            workload.figures++;
+            if (random.nextDouble() < undoRate) {
+                workload.add(BACKSPACE, 0, 0);
+                if (random.nextBoolean()) {
+                    workload.add(REDO, 0, 0);
+                }
+            }
+        }
+        return workload;
+    }
+
+    /**
+     * Random simple polygon: sorted random angles with random radius around the centre (star-shaped polygon),
+     * rounded to the lattice. Rounding could merge vertices or cross edges, such polygon is generated again.
+     * @param random    random generator
+     * @param n         number of vertices
+     * @return          packed vertices (y, x pairs)
+     */
+    static int[] simplePolygon(Random random, int n) {
+        int radius = n + 2;
+        double[] angles = new double[n];
+        int[] coords = new int[2 * n];
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                angles[i] = 2 * Math.PI * random.nextDouble();
+            }
+            Arrays.sort(angles);
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                double r = radius * (0.3 + 0.7 * random.nextDouble());
+                int y = (int) Math.round(r * Math.sin(angles[i]));
+                int x = (int) Math.round(r * Math.cos(angles[i]));
+                if (count > 0 && coords[2 * count - 2] == y && coords[2 * count - 1] == x) {
+                    continue;
+                }
+                coords[2 * count] = y;
+                coords[2 * count + 1] = x;
+                count++;
+            }
+            if (count >= 3 && distinct(coords, count) && Geometry.isSimple(coords, count)) {
+                return Arrays.copyOf(coords, 2 * count);
+            }
+        }
+    }
+
+    /**
+     * Rotated or reflected copy of the polygon, starting at a random vertex and going in a random direction
+     */
+    private static int[] transformedCopy(Random random, int[] coords) {
+        int n = coords.length / 2;
+        int transform = random.nextInt(8);
+        int start = random.nextInt(n);
+        boolean reversed = random.nextBoolean();
+        int[] copy = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            int j = reversed ? Math.floorMod(start - i, n) : (start + i) % n;
+            copy[2 * i] = SymmetryGroup.transformY(transform, coords[2 * j], coords[2 * j + 1]);
+            copy[2 * i + 1] = SymmetryGroup.transformX(transform, coords[2 * j], coords[2 * j + 1]);
+        }
+        return copy;
+    }
+
+    private static boolean distinct(int[] coords, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (coords[2 * i] == coords[2 * j] && coords[2 * i + 1] == coords[2 * j + 1]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void add(int type, int y, int x) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, 2 * size);
+            ys = Arrays.copyOf(ys, 2 * size);
+            xs = Arrays.copyOf(xs, 2 * size);
+        }
+        types[size] = type;
+        ys[size] = y;
+        xs[size] = x;
+        size++;
+    }
+
+    /**
+     * @return number of operations
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of figures, that are closed (some of them could be undone)
+     */
+    int getFigures() {
+        return figures;
+    }
+
+    int type(int i) {
+        return types[i];
+    }
+
+    int y(int i) {
+        return ys[i];
+    }
+
+    int x(int i) {
+        return xs[i];
+    }
+}
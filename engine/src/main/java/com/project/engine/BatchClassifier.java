@@ -0,0 +1,187 @@
+package com.project.engine;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Command line batch mode: streams polygons from a file, classifies them into congruence classes
+ * in parallel on all cores and prints size and area of every class.
+ * Input has one polygon per line as a list of integer pairs "y,x y,x y,x ..." (any non-digit characters
+ * between numbers are ignored, so the output of {@link Figure#toString()} works too), empty lines and lines
+ * starting with # are skipped.
+ * Usage: java -jar engine.jar [--size N] file
+ */
+public class BatchClassifier {
+    /**
+     * Statistics of one congruence class
+     */
+    public static class ClassStats {
+        final Figure representative;
+        final LongAdder count = new LongAdder();
+
+        ClassStats(Figure representative) {
+            this.representative = representative;
+        }
+
+        /**
+         * @return first figure of the class, that was classified
+         */
+        public Figure getRepresentative() {
+            return representative;
+        }
+
+        /**
+         * @return number of polygons in the class
+         */
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Size of the grid, vertices must lie in [0, size] (negative means unbounded lattice)
+     */
+    private final int size;
+    private final ConcurrentHashMap<Figure, ClassStats> classes = new ConcurrentHashMap<>();
+    private final LongAdder polygons = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+
+    /**
+     * Class constructor specifying size of the grid.
+     * @param size  number of squares (vertices must lie in [0, size]), negative for unbounded lattice
+     */
+    public BatchClassifier(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Parses a polygon with the same rules as drawing it in the game: at least 3 vertices, none of them repeats,
+     * edges do not cross each other.
+     * @param line  line with integer pairs y,x
+     * @return      finished figure or null if the line is not a valid polygon
+     */
+    public Figure parse(String line) {
+        int[] numbers = new int[16];
+        int count = 0;
+        int i = 0;
+        int length = line.length();
+        while (i < length) {
+            char c = line.charAt(i);
+            boolean negative = c == '-' && i + 1 < length && Character.isDigit(line.charAt(i + 1));
+            if (!negative && !Character.isDigit(c)) {
+                i++;
+                continue;
+            }
+            if (negative) i++;
+            long value = 0;
+            while (i < length && Character.isDigit(line.charAt(i))) {
+                value = value * 10 + (line.charAt(i) - '0');
+                if (value > Integer.MAX_VALUE) return null;
+                i++;
+            }
+            if (count == numbers.length) {
+                numbers = Arrays.copyOf(numbers, count * 2);
+            }
+            numbers[count++] = (int) (negative ? -value : value);
+        }
+        if (count % 2 != 0 || count < 6) {
+            return null;
+        }
+        Figure figure = null;
+        for (int v = 0; v < count / 2; v++) {
+            int y = numbers[2 * v], x = numbers[2 * v + 1];
+            if (size >= 0 && (y < 0 || x < 0 || y > size || x > size)) {
+                return null;
+            }
+            if (figure == null) {
+                figure = new Figure(0, new Cell(y, x));
+            } else if (!figure.addVertex(y, x)) {
+                return null;
+            }
+        }
+        // closing fails for self-intersecting polygons
+        return figure.addVertex(numbers[0], numbers[1]) ? figure : null;
+    }
+
+    /**
+     * Classifies one line (thread safe)
+     * @param line  line with integer pairs y,x
+     */
+    public void classify(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return;
+        }
+        polygons.increment();
+        Figure figure = parse(trimmed);
+        if (figure == null) {
+            invalid.increment();
+            return;
+        }
+        classes.computeIfAbsent(figure, ClassStats::new).count.increment();
+    }
+
+    /**
+     * Classifies all lines in parallel
+     * @param lines stream of lines
+     */
+    public void classifyAll(Stream<String> lines) {
+        lines.parallel().forEach(this::classify);
+    }
+
+    /**
+     * @return classes sorted by the number of polygons (the biggest first)
+     */
+    public List<ClassStats> getClasses() {
+        List<ClassStats> result = new ArrayList<>(classes.values());
+        result.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return result;
+    }
+
+    /**
+     * Prints the report: one line per class with its id, number of polygons, area and number of vertices
+     * @param out   output stream
+     */
+    public void printReport(PrintStream out) {
+        List<ClassStats> sorted = getClasses();
+        out.printf("polygons: %d, invalid: %d, classes: %d%n", polygons.sum(), invalid.sum(), sorted.size());
+        out.println("class\tcount\tarea\tvertices\trepresentative");
+        for (int id = 0; id < sorted.size(); id++) {
+            ClassStats stats = sorted.get(id);
+            Figure figure = stats.getRepresentative();
+            out.printf("%d\t%d\t%s\t%d\t%s%n", id, stats.getCount(), figure.calculatePolygonArea(),
+                    figure.number_of_vertices(), figure);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = -1;
+        Path input = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--size") && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            } else if (args[i].startsWith("--size=")) {
+                size = Integer.parseInt(args[i].substring("--size=".length()));
+            } else {
+                input = Path.of(args[i]);
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: java -jar engine.jar [--size N] file");
+            System.exit(2);
+        }
+        BatchClassifier classifier = new BatchClassifier(size);
+        try (Stream<String> lines = Files.lines(input)) {
+            classifier.classifyAll(lines);
+        }
+        classifier.printReport(System.out);
+    }
+}
@@ -0,0 +1,303 @@
+package com.project.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Sparse model of the unbounded board.
+ * Finished figures are bucketed into square chunks (CHUNK_SIZE x CHUNK_SIZE cells) keyed by chunk coordinates,
+ * only chunks with some figures exist. Each chunk keeps its figures in the order they were drawn, so rendering
+ * chunk by chunk (clipped to the chunk) gives the same picture as drawing all figures in order.
+ * The chunks also work as a uniform grid spatial index: point, rectangle and nearest figure queries visit only
+ * the chunks around the query instead of scanning all figures.
+ * The board also keeps the per-cell {@link Coverage} of all its figures.
+ */
+public class Board {
+    /**
+     * Size of the chunk in cells
+     */
+    public static final int CHUNK_SIZE = 16;
+    /**
+     * Figures covering more chunks than this are kept in the separate list instead of being copied to every chunk
+     */
+    private static final int MAX_CHUNKS_PER_FIGURE = 256;
+
+    private final Map<Long, List<Figure>> chunks = new HashMap<>();
+    /**
+     * The chunk, that was used the last time. Figures are usually drawn (and loaded) next to each other,
+     * so the next figure often goes to the same chunk without any lookup
+     */
+    private long lastKey;
+    private List<Figure> lastChunk = null;
+    /**
+     * Very large figures, that are not bucketed into chunks
+     */
+    private final List<Figure> oversized = new ArrayList<>();
+    private int size = 0;
+    private final Coverage coverage = new Coverage();
+    /**
+     * Bounds of all chunks ever created, so nearest figure search knows when to stop
+     */
+    private int minChunkY = Integer.MAX_VALUE, minChunkX = Integer.MAX_VALUE;
+    private int maxChunkY = Integer.MIN_VALUE, maxChunkX = Integer.MIN_VALUE;
+
+    /**
+     * @param coordinate    lattice coordinate
+     * @return              chunk coordinate
+     */
+    public static int chunkOf(int coordinate) {
+        return Math.floorDiv(coordinate, CHUNK_SIZE);
+    }
+
+    private static long chunkKey(int chunkY, int chunkX) {
+        return ((long) chunkY << 32) | (chunkX & 0xffffffffL);
+    }
+
+    private static boolean isOversized(Figure figure) {
+        long chunksY = chunkOf(figure.getMaxY()) - chunkOf(figure.getMinY()) + 1L;
+        long chunksX = chunkOf(figure.getMaxX()) - chunkOf(figure.getMinX()) + 1L;
+        return chunksY * chunksX > MAX_CHUNKS_PER_FIGURE;
+    }
+
+    /**
+     * Adds figure to all chunks its bounding box overlaps
+     * @param figure    finished figure
+     */
+    public void add(Figure figure) {
+        size++;
+        coverage.add(figure);
+        if (isOversized(figure)) {
+            insert(oversized, figure);
+            return;
+        }
+        minChunkY = Math.min(minChunkY, chunkOf(figure.getMinY()));
+        minChunkX = Math.min(minChunkX, chunkOf(figure.getMinX()));
+        maxChunkY = Math.max(maxChunkY, chunkOf(figure.getMaxY()));
+        maxChunkX = Math.max(maxChunkX, chunkOf(figure.getMaxX()));
+        for (int cy = chunkOf(figure.getMinY()); cy <= chunkOf(figure.getMaxY()); cy++) {
+            for (int cx = chunkOf(figure.getMinX()); cx <= chunkOf(figure.getMaxX()); cx++) {
+                long key = chunkKey(cy, cx);
+                if (lastChunk == null || lastKey != key) {
+                    lastChunk = chunks.computeIfAbsent(key, k -> new ArrayList<>());
+                    lastKey = key;
+                }
+                insert(lastChunk, figure);
+            }
+        }
+    }
+
+    /**
+     * Removes figure from all its chunks, empty chunks are deleted.
+     * Removing the last added figure is O(number of its chunks).
+     * @param figure    figure to remove
+     * @return          true if the figure was on the board
+     */
+    public boolean remove(Figure figure) {
+        if (isOversized(figure)) {
+            boolean removed = removeLast(oversized, figure);
+            if (removed) {
+                size--;
+                coverage.remove(figure);
+            }
+            return removed;
+        }
+        boolean removed = false;
+        for (int cy = chunkOf(figure.getMinY()); cy <= chunkOf(figure.getMaxY()); cy++) {
+            for (int cx = chunkOf(figure.getMinX()); cx <= chunkOf(figure.getMaxX()); cx++) {
+                long key = chunkKey(cy, cx);
+                List<Figure> chunk = chunks.get(key);
+                if (chunk != null && removeLast(chunk, figure)) {
+                    removed = true;
+                    if (chunk.isEmpty()) {
+                        chunks.remove(key);
+                        if (chunk == lastChunk) lastChunk = null;
+                    }
+                }
+            }
+        }
+        if (removed) {
+            size--;
+            coverage.remove(figure);
+        }
+        return removed;
+    }
+
+    /**
+     * Inserts figure into the list ordered by sequence numbers. New figures go to the end in O(1),
+     * older ones (e.g. deleted figure put back by undo) are found by binary search
+     */
+    private static void insert(List<Figure> list, Figure figure) {
+        int size = list.size();
+        if (size == 0 || list.get(size - 1).sequence <= figure.sequence) {
+            list.add(figure);
+            return;
+        }
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle).sequence <= figure.sequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        list.add(low, figure);
+    }
+
+    /**
+     * Removes figure (by identity, not by congruence) searching from the end of the list
+     */
+    private static boolean removeLast(List<Figure> list, Figure figure) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == figure) {
+                list.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds all figures containing the point, only one chunk is visited
+     * @param y     y coordinate of the point (lattice units)
+     * @param x     x coordinate of the point (lattice units)
+     * @return      figures under the point in the drawing order (the top one is the last)
+     */
+    public List<Figure> figuresAt(double y, double x) {
+        List<Figure> result = new ArrayList<>();
+        for (Figure f : oversized) {
+            if (f.contains(y, x)) result.add(f);
+        }
+        List<Figure> chunk = getChunk(chunkOf((int) Math.floor(y)), chunkOf((int) Math.floor(x)));
+        if (chunk != null) {
+            for (Figure f : chunk) {
+                if (f.contains(y, x)) result.add(f);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits every figure whose bounding box overlaps the rectangle exactly once
+     * @param minY      min y of the rectangle
+     * @param minX      min x of the rectangle
+     * @param maxY      max y of the rectangle
+     * @param maxX      max x of the rectangle
+     * @param action    action for every found figure
+     */
+    public void forEachInRect(int minY, int minX, int maxY, int maxX, Consumer<Figure> action) {
+        for (Figure f : oversized) {
+            if (overlaps(f, minY, minX, maxY, maxX)) action.accept(f);
+        }
+        for (int cy = chunkOf(minY); cy <= chunkOf(maxY); cy++) {
+            for (int cx = chunkOf(minX); cx <= chunkOf(maxX); cx++) {
+                List<Figure> chunk = getChunk(cy, cx);
+                if (chunk == null) continue;
+                for (Figure f : chunk) {
+                    // figure is in all chunks of its bounding box, it is reported only by the chunk with
+                    // the top left corner of the intersection, so it is not visited twice
+                    if (overlaps(f, minY, minX, maxY, maxX)
+                            && cy == chunkOf(Math.max(f.getMinY(), minY))
+                            && cx == chunkOf(Math.max(f.getMinX(), minX))) {
+                        action.accept(f);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return figures whose bounding box overlaps the rectangle
+     */
+    public List<Figure> figuresInRect(int minY, int minX, int maxY, int maxX) {
+        List<Figure> result = new ArrayList<>();
+        forEachInRect(minY, minX, maxY, maxX, result::add);
+        return result;
+    }
+
+    private static boolean overlaps(Figure f, int minY, int minX, int maxY, int maxX) {
+        return f.getMaxY() >= minY && f.getMinY() <= maxY && f.getMaxX() >= minX && f.getMinX() <= maxX;
+    }
+
+    /**
+     * Finds the figure nearest to the point. Chunks are visited in growing square rings around the point,
+     * the search stops as soon as the ring is farther than the best figure found so far
+     * @param y     y coordinate of the point (lattice units)
+     * @param x     x coordinate of the point (lattice units)
+     * @return      nearest figure (the top one if the point is inside several) or null if the board is empty
+     */
+    public Figure nearest(double y, double x) {
+        Figure best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Figure f : oversized) {
+            double distance = f.distanceTo(y, x);
+            if (distance <= bestDistance) {
+                best = f;
+                bestDistance = distance;
+            }
+        }
+        if (chunks.isEmpty()) {
+            return best;
+        }
+        int centerY = chunkOf((int) Math.floor(y)), centerX = chunkOf((int) Math.floor(x));
+        int maxRing = Math.max(
+                Math.max(Math.abs(centerY - minChunkY), Math.abs(maxChunkY - centerY)),
+                Math.max(Math.abs(centerX - minChunkX), Math.abs(maxChunkX - centerX)));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every point of this ring is at least (ring - 1) whole chunks away
+            if ((ring - 1) * (double) CHUNK_SIZE > bestDistance) {
+                break;
+            }
+            for (int cy = centerY - ring; cy <= centerY + ring; cy++) {
+                boolean edgeRow = cy == centerY - ring || cy == centerY + ring;
+                for (int cx = centerX - ring; cx <= centerX + ring; cx += edgeRow ? 1 : 2 * ring) {
+                    List<Figure> chunk = getChunk(cy, cx);
+                    if (chunk != null) {
+                        for (Figure f : chunk) {
+                            double distance = f.distanceTo(y, x);
+                            if (distance <= bestDistance) {
+                                best = f;
+                                bestDistance = distance;
+                            }
+                        }
+                    }
+                    if (ring == 0) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param chunkY    chunk y coordinate
+     * @param chunkX    chunk x coordinate
+     * @return          figures of the chunk in the drawing order or null if the chunk is empty
+     */
+    public List<Figure> getChunk(int chunkY, int chunkX) {
+        return chunks.get(chunkKey(chunkY, chunkX));
+    }
+
+    /**
+     * @return figures too large to be bucketed into chunks, in the drawing order
+     */
+    public List<Figure> getOversized() {
+        return oversized;
+    }
+
+    /**
+     * @return per-cell coverage of the figures on the board
+     */
+    public Coverage getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * @return number of figures on the board
+     */
+    public int size() {
+        return size;
+    }
+}
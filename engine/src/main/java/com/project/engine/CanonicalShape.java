@@ -0,0 +1,149 @@
+package com.project.engine;
+
+import java.util.Arrays;
+
+/**
+ * Canonical geometry of a congruence class: the canonical key (see {@link Figure#getKey()}) with its hash
+ * and measures, that do not change by moving, rotating or reflecting the figure (area, perimeter, boundary points,
+ * symmetry group).
+ * The record is interned by {@link ShapeIndex}, so all congruent figures on the board share one instance and each
+ * figure keeps only the reference, its orientation (D4 transform, direction and start vertex) and the translation.
+ * Immutable, it could be shared between threads.
+ */
+public final class CanonicalShape {
+    /**
+     * Packed vertices (y << 32 | x), the smallest sequence over all orientations
+     */
+    final long[] key;
+    final int hash;
+    private final long doubledArea;
+    private final long boundaryPoints;
+    private final double perimeter;
+    /**
+     * Symmetry group of the canonical vertices, computed lazily when the key was not computed from a figure
+     * (e.g. read from the saved session). The race is harmless, every thread computes the same group
+     */
+    private SymmetryGroup symmetryGroup;
+    /**
+     * Descriptor for the similarity search, computed lazily (the same harmless race as the group)
+     */
+    private ShapeDescriptor descriptor;
+
+    /**
+     * Class constructor, the key is not copied, the symmetry group is computed when it is needed.
+     * @param key   canonical key
+     */
+    CanonicalShape(long[] key) {
+        this(key, null);
+    }
+
+    /**
+     * Class constructor specifying the symmetry group found while computing the key, the key is not copied.
+     * @param key           canonical key
+     * @param symmetryGroup symmetry group of the canonical vertices or null
+     */
+    CanonicalShape(long[] key, SymmetryGroup symmetryGroup) {
+        this.key = key;
+        this.symmetryGroup = symmetryGroup;
+        this.hash = Arrays.hashCode(key);
+        int[] coords = new int[2 * key.length];
+        for (int i = 0; i < key.length; i++) {
+            coords[2 * i] = (int) (key[i] >>> 32);
+            coords[2 * i + 1] = (int) key[i];
+        }
+        this.doubledArea = Geometry.doubledArea(coords, key.length);
+        this.boundaryPoints = Geometry.boundaryPoints(coords, key.length);
+        this.perimeter = Geometry.perimeter(coords, key.length);
+    }
+
+    /**
+     * @return number of vertices (without the ones lying inside of horizontal or vertical edges)
+     */
+    public int size() {
+        return key.length;
+    }
+
+    /**
+     * @param i     index of the vertex
+     * @return      y coordinate of the i-th canonical vertex
+     */
+    public int getY(int i) {
+        return (int) (key[i] >>> 32);
+    }
+
+    /**
+     * @param i     index of the vertex
+     * @return      x coordinate of the i-th canonical vertex
+     */
+    public int getX(int i) {
+        return (int) key[i];
+    }
+
+    /**
+     * @return doubled area of the shape
+     */
+    public long getDoubledArea() {
+        return doubledArea;
+    }
+
+    /**
+     * @return number of lattice points on the boundary
+     */
+    public long getBoundaryPoints() {
+        return boundaryPoints;
+    }
+
+    /**
+     * @return perimeter of the shape
+     */
+    public double getPerimeter() {
+        return perimeter;
+    }
+
+    /**
+     * @return rotations and reflections mapping the canonical vertices onto themselves
+     */
+    public SymmetryGroup getSymmetryGroup() {
+        SymmetryGroup group = symmetryGroup;
+        if (group == null) {
+            int[] coords = new int[2 * key.length];
+            for (int i = 0; i < key.length; i++) {
+                coords[2 * i] = getY(i);
+                coords[2 * i + 1] = getX(i);
+            }
+            group = SymmetryGroup.of(coords, key.length);
+            symmetryGroup = group;
+        }
+        return group;
+    }
+
+    /**
+     * @return descriptor of the shape for the similarity search
+     */
+    public ShapeDescriptor getDescriptor() {
+        ShapeDescriptor result = descriptor;
+        if (result == null) {
+            result = ShapeDescriptor.of(this);
+            descriptor = result;
+        }
+        return result;
+    }
+
+    /**
+     * @param other other shape
+     * @return      true if both shapes have the same canonical key (their figures are congruent)
+     */
+    public boolean sameAs(CanonicalShape other) {
+        return this == other || (other != null && hash == other.hash && Arrays.equals(key, other.key));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CanonicalShape other && sameAs(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -1,17 +1,13 @@
-package com.project;
+package com.project.engine;
 import java.util.Objects;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The vertex representation.
  * Yes, I know, it is wrong name (it should be Vertex or at least Point) and yes I know about save cascade renaming, but I do really afraid
  * to mess everything up, so it is written Cell, but I will call it point or vertex.
  */
 public class Cell {
-    int y, x;
-    List<Figure> figures = new ArrayList<>();
+    final int y, x;
 
     /**
      * Class constructor specifying y and x positions of the point.
@@ -0,0 +1,246 @@
+package com.project.engine;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP service classifying polygons into congruence classes, so other tools could reuse the congruence
+ * test of the game without the game. It runs on the JDK built-in server, every exchange is handled on its own
+ * virtual thread. The index of classes is shared by all requests (and grows with the number of distinct shapes),
+ * so the class id of a shape stays the same for all clients until the server is stopped.
+ * <p>
+ * {@code POST /classify} takes one polygon per line in the same format as {@link BatchClassifier}
+ * (a single polygon is just a one-line batch) and answers one line per polygon, in the same order:
+ * {@code class count area key}, tab separated, where count is the number of polygons of the class seen so far
+ * (including this one, so count - 1 is the number of congruent polygons classified before it) and key is the canonical
+ * form of the shape as "y,x y,x ...". Invalid polygons are answered by {@code invalid}, skipped lines (empty or
+ * comments) by an empty line. {@code GET /stats} answers {@code polygons invalid classes}.
+ * <p>
+ * Batches are read and answered as a stream, so a big batch does not hold its whole body in memory, and the
+ * handler yields its carrier thread every few polygons, so a long batch does not stall short requests.
+ * Usage: java -cp engine.jar com.project.engine.ClassificationServer [--port N] [--size N]
+ */
+public class ClassificationServer {
+    /**
+     * Congruence class in the shared index
+     */
+    public static class ServiceClass {
+        final int id;
+        final CanonicalShape shape;
+        final AtomicLong count = new AtomicLong();
+
+        ServiceClass(int id, CanonicalShape shape) {
+            this.id = id;
+            this.shape = shape;
+        }
+
+        /**
+         * @return identifier of the class, unique within the server
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return canonical geometry of the class
+         */
+        public CanonicalShape getShape() {
+            return shape;
+        }
+
+        /**
+         * @return number of polygons of the class seen so far
+         */
+        public long getCount() {
+            return count.get();
+        }
+    }
+
+    public static final int DEFAULT_PORT = 8642;
+    /**
+     * Number of polygons classified by one handler before it lets other virtual threads run
+     */
+    private static final int YIELD_EVERY = 64;
+    /**
+     * Length of the queue of incoming connections, thousands of clients could connect at once
+     */
+    private static final int BACKLOG = 4096;
+
+    /**
+     * Parser with the rules of the game (and the size of the grid)
+     */
+    private final BatchClassifier parser;
+    private final ConcurrentHashMap<CanonicalShape, ServiceClass> classes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LongAdder polygons = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Class constructor specifying size of the grid.
+     * @param size  number of squares (vertices must lie in [0, size]), negative for unbounded lattice
+     */
+    public ClassificationServer(int size) {
+        this.parser = new BatchClassifier(size);
+    }
+
+    /**
+     * Starts listening, handlers run on virtual threads
+     * @param port  port on the loopback interface (0 for any free port)
+     * @return      port, the server listens on
+     */
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/classify", this::handleClassify);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, running exchanges get a second to finish
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.close();
+            server = null;
+        }
+    }
+
+    /**
+     * Classifies one polygon and adds it to the shared index (thread safe)
+     * @param figure    finished figure
+     * @return          class of the figure
+     */
+    public ServiceClass classify(Figure figure) {
+        ServiceClass serviceClass = classOf(figure);
+        serviceClass.count.incrementAndGet();
+        return serviceClass;
+    }
+
+    /**
+     * @return class of the figure, a new one (with count 0) if the shape was not seen yet
+     */
+    private ServiceClass classOf(Figure figure) {
+        return classes.computeIfAbsent(figure.getShape(), shape -> new ServiceClass(nextId.getAndIncrement(), shape));
+    }
+
+    /**
+     * @return number of distinct congruence classes seen so far
+     */
+    public int numberOfClasses() {
+        return classes.size();
+    }
+
+    private void handleClassify(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/tab-separated-values; charset=utf-8");
+            // length is not known in advance, the answer is sent chunked while the body is still being read
+            exchange.sendResponseHeaders(200, 0);
+            BufferedReader in = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            String line;
+            int handled = 0;
+            while ((line = in.readLine()) != null) {
+                sb.setLength(0);
+                answer(line, sb);
+                out.append(sb).append('\n');
+                if (++handled % YIELD_EVERY == 0) {
+                    Thread.yield();
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the answer for one line of the batch (without the line break)
+     */
+    private void answer(String line, StringBuilder sb) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return;
+        }
+        polygons.increment();
+        Figure figure = parser.parse(trimmed);
+        if (figure == null) {
+            invalid.increment();
+            sb.append("invalid");
+            return;
+        }
+        ServiceClass serviceClass = classOf(figure);
+        // the count of this polygon, other requests could increment it again before the answer is written
+        long count = serviceClass.count.incrementAndGet();
+        sb.append(serviceClass.id).append('\t')
+                .append(count).append('\t')
+                .append(figure.calculatePolygonArea()).append('\t');
+        CanonicalShape shape = serviceClass.shape;
+        for (int i = 0; i < shape.size(); i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(shape.getY(i)).append(',').append(shape.getX(i));
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = String.format("%d\t%d\t%d%n", polygons.sum(), invalid.sum(), classes.size())
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/tab-separated-values; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = -1;
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--size") && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            } else if (args[i].startsWith("--size=")) {
+                size = Integer.parseInt(args[i].substring("--size=".length()));
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].startsWith("--port=")) {
+                port = Integer.parseInt(args[i].substring("--port=".length()));
+            } else {
+                System.err.println("Usage: java -cp engine.jar com.project.engine.ClassificationServer [--port N] [--size N]");
+                System.exit(2);
+            }
+        }
+        ClassificationServer server = new ClassificationServer(size);
+        int actualPort = server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("Listening on http://localhost:" + actualPort + "/classify");
+    }
+}
@@ -0,0 +1,280 @@
+package com.project.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cell coverage of the board: for every cell the number of figures covering it. Cell (y, x) is the unit square
+ * with the corner in the lattice point (y, x), it is covered by the figure if its centre lies inside
+ * (points exactly on a diagonal edge belong to the cell on the right of it, so neighbouring figures do not overlap).
+ * Counters are kept in the same chunks as {@link Board} (only chunks with some covered cell exist),
+ * figures are rasterized by scanlines, so adding or removing a figure costs O(its area + its height * log),
+ * not the number of figures on the board. Covered area, overlap area and coverage of a cell are answered in O(1).
+ */
+public class Coverage {
+    private static final int TILE_CELLS = Board.CHUNK_SIZE * Board.CHUNK_SIZE;
+    /**
+     * Counters are chars (so a chunk takes 512 bytes), the counts above this are kept in the overflow map
+     */
+    private static final char SATURATED = Character.MAX_VALUE;
+
+    /**
+     * Receives the spans of covered cells of a rasterized figure
+     */
+    interface SpanVisitor {
+        /**
+         * @param y     row of the cells
+         * @param from  first covered cell
+         * @param to    cell after the last covered one
+         */
+        void span(int y, int from, int to);
+    }
+
+    /**
+     * Counters of the chunks, the last slot is the number of covered cells in the chunk
+     */
+    private final Map<Long, char[]> tiles = new HashMap<>();
+    /**
+     * Counts of cells above SATURATED (minus SATURATED) by cell key
+     */
+    private final Map<Long, Integer> overflow = new HashMap<>();
+    private long lastKey;
+    private char[] lastTile = null;
+    /**
+     * Number of cells covered by at least one figure (area of the union)
+     */
+    private long coveredArea = 0;
+    /**
+     * Number of cells covered by at least two figures
+     */
+    private long overlapArea = 0;
+    /**
+     * Sum of the rasterized areas of all figures
+     */
+    private long totalArea = 0;
+    /**
+     * Scratch arrays of the rasterization, reused between figures
+     */
+    private int[] offset = new int[64], next = new int[64], crossings = new int[256];
+
+    /**
+     * Adds one to the counters of all cells covered by the figure
+     * @param figure    finished figure
+     */
+    public void add(Figure figure) {
+        rasterize(figure, (y, from, to) -> addSpan(y, from, to, 1));
+    }
+
+    /**
+     * Subtracts one from the counters of all cells covered by the figure, it has to be added before
+     * @param figure    figure, that was added
+     */
+    public void remove(Figure figure) {
+        rasterize(figure, (y, from, to) -> addSpan(y, from, to, -1));
+    }
+
+    /**
+     * @param y     y coordinate of the cell
+     * @param x     x coordinate of the cell
+     * @return      number of figures covering the cell
+     */
+    public int coverage(int y, int x) {
+        char[] tile = tiles.get(chunkKey(Board.chunkOf(y), Board.chunkOf(x)));
+        if (tile == null) {
+            return 0;
+        }
+        char count = tile[cellIndex(y, x)];
+        return count == SATURATED ? count + overflow.getOrDefault(cellKey(y, x), 0) : count;
+    }
+
+    /**
+     * Counts covered cells of the rectangle by rows: the cell (y, x) of the rectangle is covered
+     * if prefix[row * (width + 1) + column + 1] > prefix[row * (width + 1) + column], where row = y - minY,
+     * column = x - minX. The number of covered cells in [from, to) of a row is the difference of two prefixes.
+     * Only chunks with some covered cell are read.
+     * @param minY  first row of the rectangle
+     * @param minX  first column of the rectangle
+     * @param maxY  row after the last one
+     * @param maxX  column after the last one
+     * @return      prefix counts of covered cells, (width + 1) per row
+     */
+    public int[] coveredPrefix(int minY, int minX, int maxY, int maxX) {
+        int width = maxX - minX, height = maxY - minY;
+        int[] prefix = new int[height * (width + 1)];
+        for (int cy = Board.chunkOf(minY); cy <= Board.chunkOf(maxY - 1); cy++) {
+            for (int cx = Board.chunkOf(minX); cx <= Board.chunkOf(maxX - 1); cx++) {
+                char[] tile = tiles.get(chunkKey(cy, cx));
+                if (tile == null) {
+                    continue;
+                }
+                int fromY = Math.max(minY, cy * Board.CHUNK_SIZE), toY = Math.min(maxY, (cy + 1) * Board.CHUNK_SIZE);
+                int fromX = Math.max(minX, cx * Board.CHUNK_SIZE), toX = Math.min(maxX, (cx + 1) * Board.CHUNK_SIZE);
+                for (int y = fromY; y < toY; y++) {
+                    for (int x = fromX; x < toX; x++) {
+                        if (tile[cellIndex(y, x)] != 0) {
+                            prefix[(y - minY) * (width + 1) + x - minX + 1] = 1;
+                        }
+                    }
+                }
+            }
+        }
+        for (int row = 0; row < height; row++) {
+            for (int column = 1; column <= width; column++) {
+                prefix[row * (width + 1) + column] += prefix[row * (width + 1) + column - 1];
+            }
+        }
+        return prefix;
+    }
+
+    /**
+     * @return number of cells covered by at least one figure (area of the union of all figures)
+     */
+    public long getCoveredArea() {
+        return coveredArea;
+    }
+
+    /**
+     * @return number of cells covered by at least two figures
+     */
+    public long getOverlapArea() {
+        return overlapArea;
+    }
+
+    /**
+     * @return sum of the rasterized areas of all figures (cells covered by k figures are counted k times)
+     */
+    public long getTotalArea() {
+        return totalArea;
+    }
+
+    /**
+     * Scanline rasterization: every edge crossing the centre line of a row (y + 1/2) gives the first cell
+     * right of the crossing, sorted crossings of the row pair up into spans of covered cells (even-odd rule)
+     * @param figure    finished figure
+     * @param visitor   receiver of the spans
+     */
+    void rasterize(Figure figure, SpanVisitor visitor) {
+        int n = figure.number_of_vertices();
+        int minY = figure.getMinY(), rows = figure.getMaxY() - minY;
+        if (rows == 0) {
+            return;
+        }
+        // crossings of every row are stored together, offsets are counted from the edge heights
+        if (offset.length < rows + 1) {
+            offset = new int[2 * rows + 2];
+            next = new int[2 * rows + 2];
+        }
+        Arrays.fill(offset, 0, rows + 1, 0);
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            int y1 = Math.min(figure.getY(i), figure.getY(j)), y2 = Math.max(figure.getY(i), figure.getY(j));
+            for (int y = y1; y < y2; y++) {
+                offset[y - minY + 1]++;
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            offset[r + 1] += offset[r];
+        }
+        System.arraycopy(offset, 0, next, 0, rows);
+        if (crossings.length < offset[rows]) {
+            crossings = new int[2 * offset[rows]];
+        }
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            int y1 = figure.getY(i), x1 = figure.getX(i), y2 = figure.getY(j), x2 = figure.getX(j);
+            if (y1 == y2) {
+                continue;
+            }
+            if (y1 > y2) {
+                int t = y1; y1 = y2; y2 = t;
+                t = x1; x1 = x2; x2 = t;
+            }
+            long dy = y2 - y1, dx = (long) x2 - x1;
+            for (int y = y1; y < y2; y++) {
+                // crossing is at x1 + (y + 1/2 - y1) * dx / dy, the first cell has its centre x + 1/2 not left of it
+                long numerator = 2L * x1 * dy + (2L * (y - y1) + 1) * dx - dy;
+                crossings[next[y - minY]++] = (int) Math.ceilDiv(numerator, 2 * dy);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            Arrays.sort(crossings, offset[r], offset[r + 1]);
+            for (int k = offset[r]; k + 1 < offset[r + 1]; k += 2) {
+                visitor.span(minY + r, crossings[k], crossings[k + 1]);
+            }
+        }
+    }
+
+    /**
+     * Adds delta to the cells [from, to) of the row
+     */
+    private void addSpan(int y, int from, int to, int delta) {
+        int x = from;
+        while (x < to) {
+            int chunkX = Board.chunkOf(x);
+            int end = Math.min(to, (chunkX + 1) * Board.CHUNK_SIZE);
+            long key = chunkKey(Board.chunkOf(y), chunkX);
+            char[] tile = tile(key, delta > 0);
+            for (; x < end; x++) {
+                int index = cellIndex(y, x);
+                int old = tile[index];
+                if (delta > 0) {
+                    if (old == SATURATED) {
+                        overflow.merge(cellKey(y, x), 1, Integer::sum);
+                        totalArea++;
+                        continue;
+                    }
+                    tile[index]++;
+                    if (old == 0) {
+                        coveredArea++;
+                        tile[TILE_CELLS]++;
+                    } else if (old == 1) {
+                        overlapArea++;
+                    }
+                } else {
+                    if (old == SATURATED && overflow.containsKey(cellKey(y, x))) {
+                        overflow.computeIfPresent(cellKey(y, x), (k, count) -> count == 1 ? null : count - 1);
+                        totalArea--;
+                        continue;
+                    }
+                    tile[index]--;
+                    if (old == 1) {
+                        coveredArea--;
+                        tile[TILE_CELLS]--;
+                    } else if (old == 2) {
+                        overlapArea--;
+                    }
+                }
+                totalArea += delta;
+            }
+            if (tile[TILE_CELLS] == 0) {
+                tiles.remove(key);
+                if (tile == lastTile) lastTile = null;
+            }
+        }
+    }
+
+    private char[] tile(long key, boolean create) {
+        if (lastTile == null || lastKey != key) {
+            char[] tile = create ? tiles.computeIfAbsent(key, k -> new char[TILE_CELLS + 1]) : tiles.get(key);
+            if (tile == null) {
+                throw new IllegalStateException("removed figure was not added");
+            }
+            lastTile = tile;
+            lastKey = key;
+        }
+        return lastTile;
+    }
+
+    private static int cellIndex(int y, int x) {
+        return Math.floorMod(y, Board.CHUNK_SIZE) * Board.CHUNK_SIZE + Math.floorMod(x, Board.CHUNK_SIZE);
+    }
+
+    private static long chunkKey(int chunkY, int chunkX) {
+        return ((long) chunkY << 32) | (chunkX & 0xffffffffL);
+    }
+
+    private static long cellKey(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Custom JDK Flight Recorder events of the game. They cost almost nothing when no recording is running,
+ * so they stay enabled all the time. Record them with
+ * {@code -XX:StartFlightRecording=filename=game.jfr} and read with {@code jfr print --categories "Square Grid" game.jfr}.
+ */
+public final class Events {
+    private static final String CATEGORY = "Square Grid";
+
+    private Events() {
+    }
+
+    /**
+     * Closing of the figure: simplicity check and canonical key (it could run off the UI thread,
+     * the class lookup is recorded by {@link IndexUpdate})
+     */
+    @Name("com.project.Classify")
+    @Label("Classify Figure")
+    @Category(CATEGORY)
+    public static final class Classify extends Event {
+        @Label("Vertices")
+        public int vertices;
+        @Label("Closed")
+        @Description("False if the figure was rejected (its edges cross)")
+        public boolean closed;
+    }
+
+    /**
+     * Change of the shape index and the board: figure added, removed or class recolored
+     */
+    @Name("com.project.IndexUpdate")
+    @Label("Index Update")
+    @Category(CATEGORY)
+    public static final class IndexUpdate extends Event {
+        @Label("Operation")
+        public String operation;
+        @Label("Vertices")
+        @Description("Vertices of the changed figure")
+        public int vertices;
+        @Label("Class Size")
+        public int classSize;
+        @Label("Figures")
+        @Description("Figures on the board after the change")
+        public int figures;
+    }
+
+    /**
+     * Redraw of the finished figures, either the whole view or only a dirty region
+     */
+    @Name("com.project.Repaint")
+    @Label("Repaint")
+    @Category(CATEGORY)
+    public static final class Repaint extends Event {
+        @Label("Full")
+        public boolean full;
+        @Label("Width")
+        public double width;
+        @Label("Height")
+        public double height;
+        @Label("Figures Drawn")
+        public int figuresDrawn;
+        @Label("Vertices Drawn")
+        public long verticesDrawn;
+    }
+
+    /**
+     * Handling of one input event (mouse or keyboard) on the UI thread
+     */
+    @Name("com.project.Input")
+    @Label("Input")
+    @Category(CATEGORY)
+    public static final class Input extends Event {
+        @Label("Type")
+        public String type;
+        @Label("Figures")
+        public int figures;
+        @Label("Vertices")
+        @Description("Vertices of all figures on the board")
+        public long vertices;
+    }
+}
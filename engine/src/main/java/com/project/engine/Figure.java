@@ -0,0 +1,921 @@
+package com.project.engine;
+
+import java.util.*;
+
+/**
+ * The figure representation class
+ * key attribute is a list of vertices in 2D space, packed into one int array as (y, x) pairs
+ */
+public class Figure {
+    /**
+     * Packed vertices: y of the i-th vertex is on the position 2*i, x on the position 2*i+1.
+     * Null when the figure shares the geometry of its congruence class, then the vertices are computed
+     * from the shape, the orientation and the offset (see {@link #getY(int)})
+     */
+    int[] coords;
+    /**
+     * Number of vertices
+     */
+    int size = 0;
+    /**
+     * Bounding box of the vertices, (min_y, min_x) is also the offset to the normal state
+     */
+    int min_y, min_x, max_y, max_x;
+    /**
+     * Color of the figure packed as ARGB (alpha in the highest byte), the engine does not depend on any UI toolkit
+     */
+    int color;
+    /**
+     * Finished figure (true) has all vertices, and it is not possible to add more of them,
+     * if finished is false, it is not possible to calculate symmetries, but it is possible to add new vertices
+     */
+    boolean finished = false;
+    /**
+     * Canonical geometry with the congruence key (null when finished == false), see {@link #getKey()}.
+     * Congruent figures on the board share one instance (interned by {@link ShapeIndex})
+     */
+    CanonicalShape shape;
+    /**
+     * How the canonical key was read from the vertices: D4 transform (bits 0-2: swap, negate y, negate x),
+     * direction (bit 3) and start vertex (bits 4-31). -1 if the key has fewer vertices than the figure
+     * (some vertices lie inside of horizontal or vertical edges), such figure always keeps its own vertices
+     */
+    int orientation = -1;
+    /**
+     * Translation of the transformed canonical vertices to the vertices of the figure
+     */
+    int offset_y, offset_x;
+    /**
+     * Order of the finished figure on the board (assigned when it is closed, -1 before that),
+     * figures with greater sequence are drawn over the older ones
+     */
+    long sequence = -1;
+    /**
+     * Position of the figure in the member list of its congruence class (-1 if it is not in any),
+     * kept by {@link ShapeIndex}, so the figure is removed from the class in O(1)
+     */
+    int memberIndex = -1;
+
+    private static final int SWAP = 4;
+    private static final int NEGATE_Y = 2;
+    private static final int NEGATE_X = 1;
+    private static final int REVERSED = 8;
+
+    /**
+     * Class constructor specifying color and start vertex.
+     * @param color         color of the figure (ARGB)
+     * @param startCell     start vertex of the figure
+     */
+    public Figure(int color, Cell startCell) {
+        this.color = color;
+        this.coords = new int[8];
+        append(startCell.y, startCell.x);
+    }
+
+    /**
+     * Class constructor specifying vertices of figure to create (without color).
+     * @param cells     list of figure's vertices
+     */
+    public Figure(List<Cell> cells) {
+        this(0, cells);
+    }
+
+    /**
+     * Class constructor specifying color and vertices of figure to create.
+     * @param color     color of the figure (ARGB)
+     * @param cells     list of figure's vertices
+     */
+    public Figure(int color, List<Cell> cells) {
+        this.color = color;
+        this.coords = new int[Math.max(2 * cells.size(), 8)];
+        for (Cell c : cells) {
+            append(c.y, c.x);
+        }
+        this.finished = true;
+        computeKey();
+    }
+
+    /**
+     * Class constructor specifying already packed vertices (y, x pairs) of figure to create (without color).
+     * @param coords    packed vertices, the array is copied
+     * @param n         number of vertices
+     */
+    public Figure(int[] coords, int n) {
+        this(0, coords, n);
+    }
+
+    /**
+     * Class constructor specifying color and already packed vertices (y, x pairs) of figure to create.
+     * @param color     color of the figure (ARGB)
+     * @param coords    packed vertices, the array is copied
+     * @param n         number of vertices
+     */
+    public Figure(int color, int[] coords, int n) {
+        this.color = color;
+        this.coords = new int[Math.max(2 * n, 8)];
+        for (int i = 0; i < n; i++) {
+            append(coords[2 * i], coords[2 * i + 1]);
+        }
+        this.finished = true;
+        computeKey();
+    }
+
+    /**
+     * Class constructor for a figure loaded from the saved session: vertices and canonical key were checked
+     * when the figure was closed, so they are trusted and the key is not computed again.
+     * @param color     color of the figure (ARGB)
+     * @param coords    packed vertices, the array is not copied (finished figure never changes it)
+     * @param n         number of vertices
+     * @param key       canonical key of the figure (see {@link #getKey()})
+     */
+    Figure(int color, int[] coords, int n, long[] key) {
+        this.color = color;
+        this.coords = coords;
+        this.size = n;
+        this.finished = true;
+        this.shape = new CanonicalShape(key);
+        computeBounds();
+    }
+
+    /**
+     * Class constructor for a figure loaded from the saved session, that shares geometry of its shape:
+     * vertices are given by the orientation and the offset of the canonical key.
+     * @param color         color of the figure (ARGB)
+     * @param key           canonical key of the figure (see {@link #getKey()})
+     * @param orientation   orientation of the key (see {@link #orientation})
+     * @param offset_y      translation of the transformed key in y
+     * @param offset_x      translation of the transformed key in x
+     */
+    Figure(int color, long[] key, int orientation, int offset_y, int offset_x) {
+        this.color = color;
+        this.size = key.length;
+        this.finished = true;
+        this.shape = new CanonicalShape(key);
+        this.orientation = orientation;
+        this.offset_y = offset_y;
+        this.offset_x = offset_x;
+        computeBounds();
+    }
+
+    private void computeBounds() {
+        min_y = max_y = getY(0);
+        min_x = max_x = getX(0);
+        for (int i = 1; i < size; i++) {
+            int y = getY(i), x = getX(i);
+            if (y < min_y) min_y = y;
+            if (y > max_y) max_y = y;
+            if (x < min_x) min_x = x;
+            if (x > max_x) max_x = x;
+        }
+    }
+
+    /**
+     * Adds vertex to the figure.
+     * If number of vertexes is already greater than 2 and new vertex
+     * is the same as a first (start) vertex, than finishes the figure, by
+     * setting finished parameter to true and doesn't add vertex to the
+     * figure.
+     * If the new vertex is already in the figure, then do nothing
+     * and return false.
+     * If the figure is finished, return false
+     * @param cell  a new vertex of the figure
+     * @return      boolean true/false depending on success of the execution
+     */
+    public boolean addCell(Cell cell) {
+        return addVertex(cell.y, cell.x);
+    }
+
+    /**
+     * Same as {@link #addCell(Cell)}, but without vertex object.
+     * The figure is closed only if its edges do not cross or touch each other (see {@link Geometry#isSimple(int[], int)})
+     * @param y     height position
+     * @param x     width position
+     * @return      boolean true/false depending on success of the execution
+     */
+    public boolean addVertex(int y, int x) {
+        if (finished) return false;
+        if (coords[0] == y && coords[1] == x && size >= 3) {
+            if (!Geometry.isSimple(coords, size)) {
+                return false;
+            }
+            finished = true;
+            computeKey();
+            return true;
+        }
+        for (int i = 0; i < size; i++) {
+            if (coords[2 * i] == y && coords[2 * i + 1] == x) {
+                return false;
+            }
+        }
+        append(y, x);
+        return true;
+    }
+
+    /**
+     * Appends vertex to the packed array and updates bounding box
+     */
+    private void append(int y, int x) {
+        if (2 * size == coords.length) {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[2 * size] = y;
+        coords[2 * size + 1] = x;
+        if (size == 0) {
+            min_y = max_y = y;
+            min_x = max_x = x;
+        } else {
+            if (y < min_y) min_y = y;
+            if (y > max_y) max_y = y;
+            if (x < min_x) min_x = x;
+            if (x > max_x) max_x = x;
+        }
+        size++;
+    }
+
+    /**
+     * @return sequence number of the figure on the board (-1 if it is not there yet)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return true if the figure is closed
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return color of the figure (ARGB)
+     */
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * @param color     new color of the figure (ARGB)
+     */
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int number_of_vertices() {
+        return size;
+    }
+
+    /**
+     * @param i     index of the vertex
+     * @return      y coordinate of the i-th vertex
+     */
+    public int getY(int i) {
+        if (coords != null) {
+            return coords[2 * i];
+        }
+        long vertex = shape.key[keyIndex(i)];
+        return (orientation & SWAP) != 0
+                ? ((orientation & NEGATE_X) != 0 ? -(int) vertex : (int) vertex) + offset_y
+                : ((orientation & NEGATE_Y) != 0 ? -(int) (vertex >>> 32) : (int) (vertex >>> 32)) + offset_y;
+    }
+
+    /**
+     * @param i     index of the vertex
+     * @return      x coordinate of the i-th vertex
+     */
+    public int getX(int i) {
+        if (coords != null) {
+            return coords[2 * i + 1];
+        }
+        long vertex = shape.key[keyIndex(i)];
+        return (orientation & SWAP) != 0
+                ? ((orientation & NEGATE_Y) != 0 ? -(int) (vertex >>> 32) : (int) (vertex >>> 32)) + offset_x
+                : ((orientation & NEGATE_X) != 0 ? -(int) vertex : (int) vertex) + offset_x;
+    }
+
+    /**
+     * @return position of the i-th vertex in the canonical key
+     */
+    private int keyIndex(int i) {
+        int start = orientation >>> 4;
+        int k = (orientation & REVERSED) != 0 ? size - 1 - i - start : i - start;
+        return k < 0 ? k + size : k;
+    }
+
+    /**
+     * Drops own vertices and keeps only the shared canonical geometry of the congruence class,
+     * if the vertices could be computed from it
+     * @param shared    interned shape with the same key
+     */
+    void share(CanonicalShape shared) {
+        shape = shared;
+        if (orientation >= 0) {
+            coords = null;
+        }
+    }
+
+    /**
+     * @return canonical geometry of the figure (null if the figure is not finished)
+     */
+    public CanonicalShape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return true if the figure does not keep its own vertices, but computes them from the shared shape
+     */
+    public boolean isShared() {
+        return coords == null;
+    }
+
+    /**
+     * @return orientation of the canonical key in the figure (see {@link #orientation}), -1 if the vertices
+     * could not be computed from the key
+     */
+    int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * @return penultimate vertex (if exists, otherwise -> null)
+     */
+    public Cell get_previous_vertex() {
+        if (size >= 2) {
+            return new Cell(getY(size - 2), getX(size - 2));
+        }
+        return null;
+    }
+
+    /**
+     * @return first vertex (if exists, otherwise -> null)
+     */
+    public Cell get_first_vertex() {
+        if (size > 0) {
+            return new Cell(getY(0), getX(0));
+        }
+        return null;
+    }
+
+    /**
+     * @return last vertex (if exists, otherwise -> null)
+     */
+    public Cell get_last_vertex() {
+        if (size > 0) {
+            return new Cell(getY(size - 1), getX(size - 1));
+        }
+        return null;
+    }
+
+    /**
+     * Notice: creates new list of vertices on every call, use {@link #getY(int)} and {@link #getX(int)} in loops
+     * @return list of vertices
+     */
+    public List<Cell> get_vertices() {
+        return toCells(packed(), size);
+    }
+
+    /**
+     * @return packed vertices (computed from the shape if the figure shares it, the array must not be changed)
+     */
+    private int[] packed() {
+        if (coords != null) {
+            return coords;
+        }
+        int[] packed = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            packed[2 * i] = getY(i);
+            packed[2 * i + 1] = getX(i);
+        }
+        return packed;
+    }
+
+    /**
+     * @return min y of the figure
+     */
+    public int getMinY() {
+        return min_y;
+    }
+
+    /**
+     * @return min x of the figure
+     */
+    public int getMinX() {
+        return min_x;
+    }
+
+    /**
+     * @return max y of the figure
+     */
+    public int getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * @return max x of the figure
+     */
+    public int getMaxX() {
+        return max_x;
+    }
+
+    private static List<Cell> toCells(int[] cells, int n) {
+        List<Cell> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(new Cell(cells[2 * i], cells[2 * i + 1]));
+        }
+        return list;
+    }
+
+    private static int[] find_extremes(int[] cells, int n) {
+        int max_width, max_height, min_width, min_height;
+        max_width = cells[1];
+        min_width = cells[1];
+        max_height = cells[0];
+        min_height = cells[0];
+        for (int i = 1; i < n; i++) {
+            int y = cells[2 * i], x = cells[2 * i + 1];
+            if (x > max_width) max_width = x;
+            if (y > max_height) max_height = y;
+            if (x < min_width) min_width = x;
+            if (y < min_height) min_height = y;
+        }
+        return new int[]{max_width, min_width, max_height, min_height};
+    }
+
+    /**
+     * Shifts all vertices of the figure to the origin of coordinates (in this project it is called normal state),
+     * the offset is the bounding box kept by {@link #addVertex(int, int)}
+     * @return packed normal vertices
+     */
+    public int[] to_normal() {
+        int[] normal_cells = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            normal_cells[2 * i] = getY(i) - min_y;
+            normal_cells[2 * i + 1] = getX(i) - min_x;
+        }
+        return normal_cells;
+    }
+
+    /**
+     * Shifts all vertices to the origin of coordinates (in this project it is called normal state)
+     * @param cells packed vertices
+     * @param n     number of vertices
+     * @return      packed normal vertices
+     */
+    public static int[] to_normal(int[] cells, int n) {
+        int[] extremes = find_extremes(cells, n);
+        int min_width = extremes[1];
+        int min_height = extremes[3];
+        int[] normal_cells = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            normal_cells[2 * i] = cells[2 * i] - min_height;
+            normal_cells[2 * i + 1] = cells[2 * i + 1] - min_width;
+        }
+        return normal_cells;
+    }
+
+    /**
+     * Flips horizontal all vertices
+     * @param normal_cells  packed normal vertices
+     * @param n             number of vertices
+     * @return              packed flipped normal vertices
+     */
+    private static int[] horizontal_flip(int[] normal_cells, int n) {
+        int[] extremes = find_extremes(normal_cells, n);
+        int max_height = extremes[2];
+        int[] hor_flipped = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            hor_flipped[2 * i] = max_height - normal_cells[2 * i];
+            hor_flipped[2 * i + 1] = normal_cells[2 * i + 1];
+        }
+        return hor_flipped;
+    }
+
+    /**
+     * Flips vertical all vertices
+     * @param normal_cells  packed normal vertices
+     * @param n             number of vertices
+     * @return              packed flipped normal vertices
+     */
+    private static int[] vertical_flip(int[] normal_cells, int n) {
+        int[] extremes = find_extremes(normal_cells, n);
+        int max_width = extremes[0];
+        int[] ver_flipped = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            ver_flipped[2 * i] = normal_cells[2 * i];
+            ver_flipped[2 * i + 1] = max_width - normal_cells[2 * i + 1];
+        }
+        return ver_flipped;
+    }
+
+    /**
+     * Rotates on 90 degrees all vertices
+     * @param normal_cells  packed normal vertices
+     * @param n             number of vertices
+     * @return              packed rotated normal vertices
+     */
+    private static int[] rotate90(int[] normal_cells, int n) {
+        int[] extremes = find_extremes(normal_cells, n);
+        // y becomes x, so it is flipped by the height (the width left the rotated figure off the origin)
+        int max_height = extremes[2];
+        int[] rotated90 = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            rotated90[2 * i] = normal_cells[2 * i + 1];
+            rotated90[2 * i + 1] = max_height - normal_cells[2 * i];
+        }
+        return rotated90;
+    }
+
+    /**
+     * Detects and deletes useless vertices, that do not pay role in the figure creation, because
+     * they are lying between two vertices on the same X or Y axis
+     * @param cells     packed vertices
+     * @param n         number of vertices
+     * @return          filtered packed vertices (its length is 2 * number of remaining vertices)
+     */
+    private static int[] deleteUselessCells(int[] cells, int n) {
+        if (n < 3) {
+            return Arrays.copyOf(cells, 2 * n);
+        }
+        int[] filtered_cells = new int[2 * n];
+        int count = 0;
+        // deleting unnecessary vertices
+        for (int i = 0; i < n; i++) {
+            int prevIndex1 = (i - 1 + n) % n;
+            int prevIndex2 = (i - 2 + n) % n;
+
+            int y = cells[2 * i], x = cells[2 * i + 1];
+            int y1 = cells[2 * prevIndex1], x1 = cells[2 * prevIndex1 + 1];
+            int y2 = cells[2 * prevIndex2], x2 = cells[2 * prevIndex2 + 1];
+            if (!((x == x1 && x == x2) || (y == y1 && y == y2))) {
+                filtered_cells[2 * count] = y1;
+                filtered_cells[2 * count + 1] = x1;
+                count++;
+            }
+        }
+        return Arrays.copyOf(filtered_cells, 2 * count);
+    }
+
+    /**
+     * Finds all possible symmetries, rotations and permutations (shifts) of the vertices of the current figure in 2D space.
+     * Notice: it is slow (O(n^2) lists per figure) and is not used for comparing figures anymore, see {@link #getKey()},
+     * it stays here as a reference implementation for debugging.
+     * Permutations used in case of comparing two figures that are the same, but was created in different vertex order,
+     * for instance [(1,0), (0,1), (0,0)] and [(0,1), (0,0), (1,0)], the figures are the same, but order of vertices is
+     * different, it was the best solution to just add all such permutations (shifts) to the set of symmetries than
+     * reinvent the wheel
+     * @return set of all possible symmetries, rotations and permutations (shifts) of the vertices
+     */
+    public Set<List<Cell>> getAllSymmetries() {
+        if (!finished) return null;
+        int n = size;
+
+        int[] normal_cells = to_normal();
+
+        int[] horizontal_flipped = horizontal_flip(normal_cells, n);
+        int[] vertical_flipped = vertical_flip(normal_cells, n);
+        int[] horizontal_vertical_flipped = vertical_flip(horizontal_flipped, n);
+
+        int[] rotated90 = rotate90(normal_cells, n);
+        int[] rotated_horizontal_flipped = horizontal_flip(rotated90, n);
+        int[] rotated_vertical_flipped = vertical_flip(rotated90, n);
+        int[] rotated_horizontal_vertical_flipped = vertical_flip(rotated_horizontal_flipped, n);
+
+        Set<List<Cell>> allSymmetries = new HashSet<>();
+        allSymmetries.addAll(getAllPermutations(normal_cells, n));
+        allSymmetries.addAll(getAllPermutations(horizontal_flipped, n));
+        allSymmetries.addAll(getAllPermutations(vertical_flipped, n));
+        allSymmetries.addAll(getAllPermutations(horizontal_vertical_flipped, n));
+
+        allSymmetries.addAll(getAllPermutations(rotated90, n));
+        allSymmetries.addAll(getAllPermutations(rotated_horizontal_flipped, n));
+        allSymmetries.addAll(getAllPermutations(rotated_vertical_flipped, n));
+        allSymmetries.addAll(getAllPermutations(rotated_horizontal_vertical_flipped, n));
+        return allSymmetries;
+    }
+
+    /**
+     * Symmetry group of the figure: rotations and reflections, that map it onto itself. The group of the canonical
+     * shape is computed once for the whole congruence class, the figure only turns it by its orientation.
+     * @return symmetry group (null if the figure is not finished)
+     */
+    public SymmetryGroup getSymmetryGroup() {
+        if (shape == null) return null;
+        if (orientation < 0) {
+            // the key was read from a different number of vertices, so the orientation is not known
+            int[] filtered = deleteUselessCells(coords, size);
+            return SymmetryGroup.of(filtered, filtered.length / 2);
+        }
+        // canonical vertices are transform(figure), so the group of the figure is transform^-1 * G * transform
+        return shape.getSymmetryGroup().conjugate(SymmetryGroup.inverse(orientation & (SWAP | NEGATE_Y | NEGATE_X)));
+    }
+
+
+    /**
+     * Finds all possible permutations (shifts) of the vertices.
+     * Permutations used in case of comparing two figures that are the same, but was created in different vertex order,
+     * for instance [(1,0), (0,1), (0,0)] and [(0,1), (0,0), (1,0)], the figures are the same, but order of vertices is
+     * different
+     * @param vertices  packed vertices
+     * @param n         number of vertices
+     * @return          all possible permutations (shifts)
+     */
+    private static Set<List<Cell>> getAllPermutations(int[] vertices, int n) {
+        Set<List<Cell>> ret = new HashSet<>();
+        int[] new_perm = new int[2 * n];
+        int[] new_reversed_perm = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int index = (j + i) % n;
+                int reversed_index = n - 1 - index;
+                new_perm[2 * j] = vertices[2 * index];
+                new_perm[2 * j + 1] = vertices[2 * index + 1];
+                new_reversed_perm[2 * j] = vertices[2 * reversed_index];
+                new_reversed_perm[2 * j + 1] = vertices[2 * reversed_index + 1];
+            }
+            int[] filtered = deleteUselessCells(new_perm, n);
+            int[] filtered_reversed = deleteUselessCells(new_reversed_perm, n);
+            ret.add(toCells(filtered, filtered.length / 2));
+            ret.add(toCells(filtered_reversed, filtered_reversed.length / 2));
+        }
+        return ret;
+    }
+
+    /**
+     * @return canonical congruence key of the figure (null if the figure is not finished)
+     */
+    public long[] getKey() {
+        return shape == null ? null : shape.key;
+    }
+
+    /**
+     * Packs vertex into one long, so the whole figure could be compared as an array of primitives.
+     * Both coordinates are expected to be non-negative (normal state)
+     */
+    private static long pack(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+
+    /**
+     * Computes canonical key of the finished figure. Does the same job as comparing sets from {@link #getAllSymmetries()},
+     * but keeps only the smallest vertex sequence instead of all of them:
+     * 1. useless vertices are deleted (same rule as in {@link #deleteUselessCells(int[], int)})
+     * 2. for each of 8 rotations/reflections the vertices are shifted to the normal state and packed to longs
+     * 3. the smallest cyclic shift is found in both directions in linear time and compared with the best one so far
+     * The orientation and offset of the best one are remembered, so the figure could later share the canonical geometry.
+     * Transforms giving the same sequence as the best one differ by a symmetry of the figure, so the symmetry group
+     * comes for free: the transforms with the smallest sequence are best * G. Known symmetries also skip transforms,
+     * t * g gives the same sequence as t, so a symmetric figure (e.g. a square) computes only some of them.
+     */
+    private void computeKey() {
+        int[] filtered = deleteUselessCells(coords, size);
+        int n = filtered.length / 2;
+        long[] best = new long[n];
+        long[] current = new long[n];
+        boolean found = false;
+        int best_transform = SymmetryGroup.IDENTITY;
+        // transforms with the best sequence, the known part of the group and the transforms already computed
+        int ties = 0, known = 1, computed = 0;
+        for (int transform = 0; transform < 8; transform++) {
+            if ((SymmetryGroup.cosets(known, computed) & 1 << transform) != 0) {
+                continue;
+            }
+            computed |= 1 << transform;
+            boolean swap = (transform & SWAP) != 0;
+            int signY = (transform & NEGATE_Y) != 0 ? -1 : 1;
+            int signX = (transform & NEGATE_X) != 0 ? -1 : 1;
+            int min_y = Integer.MAX_VALUE, min_x = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                int y = signY * (swap ? filtered[2 * i + 1] : filtered[2 * i]);
+                int x = signX * (swap ? filtered[2 * i] : filtered[2 * i + 1]);
+                if (y < min_y) min_y = y;
+                if (x < min_x) min_x = x;
+            }
+            for (int i = 0; i < n; i++) {
+                int y = signY * (swap ? filtered[2 * i + 1] : filtered[2 * i]);
+                int x = signX * (swap ? filtered[2 * i] : filtered[2 * i + 1]);
+                current[i] = pack(y - min_y, x - min_x);
+            }
+            for (int direction = 0; direction < 2; direction++) {
+                boolean reversed = direction == 1;
+                int start = leastRotation(current, n, reversed);
+                int cmp = found ? compareRotation(current, start, reversed, best, n) : -1;
+                if (cmp == 0 && (ties & 1 << transform) == 0) {
+                    ties |= 1 << transform;
+                    known = SymmetryGroup.closure(known | 1 << SymmetryGroup.compose(SymmetryGroup.inverse(best_transform), transform));
+                }
+                if (cmp < 0) {
+                    for (int k = 0; k < n; k++) {
+                        best[k] = at(current, n, start + k, reversed);
+                    }
+                    found = true;
+                    best_transform = transform;
+                    ties = 1 << transform;
+                    // filtered vertex j is the vertex j - 1 of the figure (when nothing was deleted)
+                    int first = reversed ? (start + 1) % n : (start + n - 1) % n;
+                    orientation = transform | (reversed ? REVERSED : 0) | (first << 4);
+                    // canonical vertex (cy, cx) is (transformed y - min_y, transformed x - min_x)
+                    offset_y = swap ? signX * min_x : signY * min_y;
+                    offset_x = swap ? signY * min_y : signX * min_x;
+                }
+            }
+        }
+        if (n != size) {
+            orientation = -1;
+        }
+        // skipped transforms are in the cosets of the computed ones, best * G = ties * G
+        int best_transforms = SymmetryGroup.cosets(known, ties);
+        int inverse = SymmetryGroup.inverse(best_transform);
+        int mask = 0;
+        for (int t = 0; t < 8; t++) {
+            if ((best_transforms & 1 << t) != 0) mask |= 1 << SymmetryGroup.compose(t, inverse);
+        }
+        // group of the canonical shape is S * best^-1 (the group of the figure is best^-1 * S)
+        shape = new CanonicalShape(best, SymmetryGroup.of(mask));
+    }
+
+    /**
+     * @return element on the position i of the cyclic sequence (read backwards if reversed)
+     */
+    private static long at(long[] seq, int n, int i, boolean reversed) {
+        int index = i % n;
+        return reversed ? seq[n - 1 - index] : seq[index];
+    }
+
+    /**
+     * Finds start of the lexicographically smallest cyclic shift (minimum expression algorithm), O(n)
+     * @param seq       packed vertices
+     * @param n         number of vertices
+     * @param reversed  read sequence backwards
+     * @return          start index of the smallest shift
+     */
+    private static int leastRotation(long[] seq, int n, boolean reversed) {
+        int i = 0, j = 1, k = 0;
+        while (i < n && j < n && k < n) {
+            long a = at(seq, n, i + k, reversed);
+            long b = at(seq, n, j + k, reversed);
+            if (a == b) {
+                k++;
+                continue;
+            }
+            if (a > b) i += k + 1;
+            else j += k + 1;
+            if (i == j) j++;
+            k = 0;
+        }
+        return Math.min(i, j);
+    }
+
+    /**
+     * Compares cyclic shift of the sequence starting at start with already materialized best sequence
+     */
+    private static int compareRotation(long[] seq, int start, boolean reversed, long[] best, int n) {
+        for (int k = 0; k < n; k++) {
+            int cmp = Long.compare(at(seq, n, start + k, reversed), best[k]);
+            if (cmp != 0) return cmp;
+        }
+        return 0;
+    }
+
+    /**
+     * @return string representation of the figure
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(String.format("(%d, %d)", getY(i), getX(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * @param obj   other object to compare
+     * @return      true - if this object is similar to other (both are finished and their canonical keys are equal),
+     * false if not
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Figure figure = (Figure) obj;
+        return shape != null && shape.sameAs(figure.shape);
+    }
+
+    /**
+     * @return hashCode (hash of the canonical key, 0 for unfinished figure)
+     */
+    @Override
+    public int hashCode() {
+        return shape == null ? 0 : shape.hash;
+    }
+
+
+    /**
+     * Calculates the area of the figure by vertices, using Shoelace Theorem.
+     * Closed figures do not cross themselves, so the area is exact (it is a multiple of 0.5)
+     * @link <a href="https://artofproblemsolving.com/wiki/index.php?title=Shoelace_Theorem">Shoelace Theorem</a>
+     * @return polygon area
+     */
+    public double calculatePolygonArea() {
+        return getDoubledArea() / 2.0;
+    }
+
+    /**
+     * @return doubled area of the figure (exact integer)
+     * @see Geometry#doubledArea(int[], int)
+     */
+    public long getDoubledArea() {
+        return shape != null ? shape.getDoubledArea() : Geometry.doubledArea(coords, size);
+    }
+
+    /**
+     * @return perimeter of the figure
+     * @see Geometry#perimeter(int[], int)
+     */
+    public double getPerimeter() {
+        return shape != null ? shape.getPerimeter() : Geometry.perimeter(coords, size);
+    }
+
+    /**
+     * @return number of lattice points on the boundary of the figure
+     * @see Geometry#boundaryPoints(int[], int)
+     */
+    public long getBoundaryPoints() {
+        return shape != null ? shape.getBoundaryPoints() : Geometry.boundaryPoints(coords, size);
+    }
+
+    /**
+     * @return number of lattice points strictly inside the figure (Pick's theorem)
+     * @see Geometry#interiorPoints(int[], int)
+     */
+    public long getInteriorPoints() {
+        return (getDoubledArea() - getBoundaryPoints() + 2) / 2;
+    }
+
+    /**
+     * Checks if the point lies inside the figure (even-odd rule, ray casting)
+     * @param y     y coordinate of the point
+     * @param x     x coordinate of the point
+     * @return      true if the point is inside
+     */
+    public boolean contains(double y, double x) {
+        if (y < min_y || y > max_y || x < min_x || x > max_x) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            int yi = getY(i), xi = getX(i), yj = getY(j), xj = getX(j);
+            if ((yi > y) != (yj > y) && x < (double) (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * @param y     y coordinate of the point
+     * @param x     x coordinate of the point
+     * @return      distance from the point to the figure (0 if the point is inside)
+     */
+    public double distanceTo(double y, double x) {
+        if (finished && contains(y, x)) {
+            return 0;
+        }
+        double best = Double.MAX_VALUE;
+        int edges = finished ? size : size - 1;
+        for (int i = 0; i < Math.max(edges, 1); i++) {
+            int j = (i + 1) % size;
+            double ay = getY(i), ax = getX(i), by = getY(j), bx = getX(j);
+            double dy = by - ay, dx = bx - ax;
+            double length = dy * dy + dx * dx;
+            double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((y - ay) * dy + (x - ax) * dx) / length));
+            best = Math.min(best, Math.hypot(y - (ay + t * dy), x - (ax + t * dx)));
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        // for testing and debugging
+        Figure f = new Figure(0, new Cell(1,0));
+        f.addCell(new Cell(0,2));
+        f.addCell(new Cell(0,1));
+        f.addCell(new Cell(0,0));
+        f.addCell(new Cell(1,0));
+
+        Figure f2 = new Figure(0, new Cell(0,0));
+        f2.addCell(new Cell(1,0));
+        f2.addCell(new Cell(0,2));
+        f2.addCell(new Cell(0,1));
+        f2.addCell(new Cell(0,0));
+
+        System.out.println(f.calculatePolygonArea());
+    }
+}
+
@@ -0,0 +1,359 @@
+package com.project.engine;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * State of the game without any UI: drawn figures in the order they were drawn, their congruence classes,
+ * the board with finished figures, the number of discovered shapes and the undo/redo history.
+ * Clicks on the lattice points go through {@link #click(int, int, int)}, so the same path could be run
+ * headlessly (batch jobs, benchmarks) and from the JavaFX application.
+ */
+public class GameState {
+    /**
+     * Receives every change of the finished figures (including undo and redo), e.g. to save them
+     */
+    public interface Listener {
+        void figureAdded(Figure figure);
+
+        void figureRemoved(Figure figure);
+
+        void classRecolored(Figure member, int color);
+    }
+
+    /**
+     * Finished figures by their sequence number (the order they were drawn in)
+     */
+    private final TreeMap<Long, Figure> figures = new TreeMap<>();
+    private final ShapeIndex shapeIndex = new ShapeIndex();
+    private final Board board = new Board();
+    private final History history = new History();
+    /**
+     * Shapes to discover, null if they are not tracked
+     */
+    private final PolygonEnumerator discoverable;
+    /**
+     * Number of classes, that are among the shapes to discover
+     */
+    private int discoveredFigures = 0;
+    /**
+     * Figure being drawn or null
+     */
+    private Figure current = null;
+    private long nextSequence = 0;
+    private Listener listener = null;
+    /**
+     * Number of vertices of all finished figures
+     */
+    private long numberOfVertices = 0;
+    /**
+     * Duration of the last classification in nanoseconds (it could be written from a background thread)
+     */
+    private volatile long lastClassifyNanos = 0;
+
+    /**
+     * Class constructor without tracking of discovered shapes.
+     */
+    public GameState() {
+        this(null);
+    }
+
+    /**
+     * Class constructor specifying shapes to discover.
+     * @param discoverable  enumerator of shapes to discover or null
+     */
+    public GameState(PolygonEnumerator discoverable) {
+        this.discoverable = discoverable;
+    }
+
+    /**
+     * Click on the lattice point: starts a new figure or adds a vertex to the current one.
+     * When the figure is closed, it takes the color of its class and is put on the board.
+     * @param y     y coordinate of the lattice point
+     * @param x     x coordinate of the lattice point
+     * @param color color of the new figure (ARGB), not used if the figure is already being drawn
+     * @return      figure closed by this click or null
+     */
+    public Figure click(int y, int x, int color) {
+        if (current == null) {
+            current = new Figure(color, new Cell(y, x));
+            return null;
+        }
+        if (!isClosingClick(y, x)) {
+            current.addVertex(y, x);
+            return null;
+        }
+        Figure closed_figure = current;
+        if (!classify(closed_figure)) {
+            return null;
+        }
+        current = null;
+        addClosed(closed_figure);
+        return closed_figure;
+    }
+
+    /**
+     * @param y     y coordinate of the lattice point
+     * @param x     x coordinate of the lattice point
+     * @return      true if the click on the point would try to close the figure being drawn
+     */
+    public boolean isClosingClick(int y, int x) {
+        return current != null && current.number_of_vertices() >= 3 && current.getY(0) == y && current.getX(0) == x;
+    }
+
+    /**
+     * Closes the figure: checks that its edges do not cross and computes its canonical key. This is the expensive
+     * part of closing the figure and it does not touch the state, so it could run on any thread
+     * (on the figure taken by {@link #cancelDrawing()}); the figure is then put on the board by {@link #addClosed(Figure)}.
+     * @param figure    unfinished figure with at least 3 vertices
+     * @return          true if the figure was closed, false if its edges cross
+     */
+    public boolean classify(Figure figure) {
+        long start = System.nanoTime();
+        Events.Classify event = new Events.Classify();
+        event.begin();
+        boolean closed = figure.addVertex(figure.getY(0), figure.getX(0));
+        event.end();
+        lastClassifyNanos = System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.vertices = figure.number_of_vertices();
+            event.closed = closed;
+            event.commit();
+        }
+        return closed;
+    }
+
+    /**
+     * Puts figure closed by {@link #classify(Figure)} on the board (undoable): it takes the color of its class
+     * and the next sequence number
+     * @param figure    closed figure
+     */
+    public void addClosed(Figure figure) {
+        figure.sequence = nextSequence++;
+        execute(new History.CloseFigure(figure));
+    }
+
+    /**
+     * Continues drawing of the figure (e.g. the one, that could not be closed), if no other figure is being drawn
+     * @param figure    unfinished figure
+     * @return          true if the figure is being drawn now
+     */
+    public boolean continueDrawing(Figure figure) {
+        if (current != null || figure.isFinished()) {
+            return false;
+        }
+        current = figure;
+        return true;
+    }
+
+    /**
+     * Throws away the figure being drawn
+     * @return the figure or null if no figure was being drawn
+     */
+    public Figure cancelDrawing() {
+        Figure figure = current;
+        current = null;
+        return figure;
+    }
+
+    /**
+     * Deletes finished figure from the board (undoable)
+     * @param figure    finished figure on the board
+     */
+    public void delete(Figure figure) {
+        if (figures.get(figure.sequence) == figure) {
+            execute(new History.DeleteFigure(figure));
+        }
+    }
+
+    /**
+     * Changes the shared color of the figure's class (undoable)
+     * @param member    finished figure on the board
+     * @param color     new color (ARGB)
+     */
+    public void recolor(Figure member, int color) {
+        ShapeIndex.ShapeClass shapeClass = shapeIndex.classOf(member);
+        if (shapeClass != null && shapeClass.getColor() != color) {
+            execute(new History.RecolorClass(member, shapeClass.getColor(), color));
+        }
+    }
+
+    /**
+     * Reverts the last command
+     * @return figures, whose region has to be redrawn (empty if there was nothing to undo)
+     */
+    public List<Figure> undo() {
+        History.Command command = history.undo(this);
+        return command == null ? List.of() : command.affected(this);
+    }
+
+    /**
+     * Applies the last undone command again
+     * @return figures, whose region has to be redrawn (empty if there was nothing to redo)
+     */
+    public List<Figure> redo() {
+        History.Command command = history.redo(this);
+        return command == null ? List.of() : command.affected(this);
+    }
+
+    private void execute(History.Command command) {
+        command.apply(this);
+        history.record(command);
+    }
+
+    /**
+     * Places already finished figure (e.g. loaded from the saved session) as if it was just closed,
+     * it is not recorded in the history. Figure without sequence number gets the next one.
+     * @param figure    finished figure
+     */
+    public void place(Figure figure) {
+        if (figure.sequence < 0) {
+            figure.sequence = nextSequence;
+        }
+        nextSequence = Math.max(nextSequence, figure.sequence + 1);
+        addFigure(figure);
+    }
+
+    /**
+     * @param sequence  sequence number of the figure
+     * @return          finished figure with the sequence number or null
+     */
+    public Figure getFigure(long sequence) {
+        return figures.get(sequence);
+    }
+
+    /**
+     * Puts finished figure into its class and on the board
+     */
+    void addFigure(Figure figure) {
+        Events.IndexUpdate event = new Events.IndexUpdate();
+        event.begin();
+        figures.put(figure.sequence, figure);
+        numberOfVertices += figure.number_of_vertices();
+        // figure takes the shared color of its class before it is placed
+        ShapeIndex.ShapeClass shapeClass = shapeIndex.add(figure);
+        if (shapeClass.size() == 1 && discoverable != null && discoverable.contains(figure)) {
+            discoveredFigures++;
+        }
+        board.add(figure);
+        commit(event, "add", figure, shapeClass.size());
+        if (listener != null) listener.figureAdded(figure);
+    }
+
+    /**
+     * Takes finished figure out of its class and from the board
+     */
+    void removeFigure(Figure figure) {
+        Events.IndexUpdate event = new Events.IndexUpdate();
+        event.begin();
+        figures.remove(figure.sequence);
+        numberOfVertices -= figure.number_of_vertices();
+        shapeIndex.remove(figure);
+        ShapeIndex.ShapeClass shapeClass = shapeIndex.classOf(figure);
+        if (shapeClass == null && discoverable != null && discoverable.contains(figure)) {
+            // the last figure of its class is gone, so the shape has to be discovered again
+            discoveredFigures--;
+        }
+        board.remove(figure);
+        commit(event, "remove", figure, shapeClass == null ? 0 : shapeClass.size());
+        if (listener != null) listener.figureRemoved(figure);
+    }
+
+    /**
+     * Sets the shared color of the class and all its members
+     */
+    void recolorClass(Figure member, int color) {
+        ShapeIndex.ShapeClass shapeClass = shapeIndex.classOf(member);
+        if (shapeClass == null) {
+            return;
+        }
+        Events.IndexUpdate event = new Events.IndexUpdate();
+        event.begin();
+        shapeIndex.recolor(shapeClass, color);
+        commit(event, "recolor", member, shapeClass.size());
+        if (listener != null) listener.classRecolored(member, color);
+    }
+
+    private void commit(Events.IndexUpdate event, String operation, Figure figure, int classSize) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.vertices = figure.number_of_vertices();
+            event.classSize = classSize;
+            event.figures = figures.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * @param listener  receiver of the changes (null to remove it)
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return true if some figure is being drawn
+     */
+    public boolean isDrawing() {
+        return current != null;
+    }
+
+    /**
+     * @return figure being drawn or null
+     */
+    public Figure getCurrentFigure() {
+        return current;
+    }
+
+    /**
+     * @return the most recently drawn finished figure or null
+     */
+    public Figure getLastFigure() {
+        Map.Entry<Long, Figure> last = figures.lastEntry();
+        return last == null ? null : last.getValue();
+    }
+
+    /**
+     * @return all finished figures in the order they were drawn
+     */
+    public Collection<Figure> getFigures() {
+        return Collections.unmodifiableCollection(figures.values());
+    }
+
+    public ShapeIndex getShapeIndex() {
+        return shapeIndex;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    /**
+     * @return number of vertices of all finished figures
+     */
+    public long getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    /**
+     * @return duration of the last classification (click closing a figure) in nanoseconds
+     */
+    public long getLastClassifyNanos() {
+        return lastClassifyNanos;
+    }
+
+    /**
+     * @return number of drawn classes, that are among the shapes to discover
+     */
+    public int getDiscoveredFigures() {
+        return discoveredFigures;
+    }
+}
@@ -0,0 +1,287 @@
+package com.project.engine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Exact geometry of lattice polygons. Polygons are packed int arrays of (y, x) pairs, all results are computed
+ * in long arithmetic, so they are exact as long as |coordinates| < 2^30.
+ */
+public final class Geometry {
+    private Geometry() {
+    }
+
+    /**
+     * Doubled area of the polygon, using Shoelace Theorem (always an integer for lattice polygons)
+     * @link <a href="https://artofproblemsolving.com/wiki/index.php?title=Shoelace_Theorem">Shoelace Theorem</a>
+     * @param coords    packed vertices
+     * @param n         number of vertices
+     * @return          doubled area of the polygon
+     */
+    public static long doubledArea(int[] coords, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            sum += (long) coords[2 * i + 1] * coords[2 * j] - (long) coords[2 * j + 1] * coords[2 * i];
+        }
+        return Math.abs(sum);
+    }
+
+    /**
+     * Number of lattice points on the boundary: every edge (dy, dx) contains gcd(|dy|, |dx|) of them
+     * (without its first vertex)
+     * @param coords    packed vertices
+     * @param n         number of vertices
+     * @return          number of lattice points on the boundary
+     */
+    public static long boundaryPoints(int[] coords, int n) {
+        long points = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            points += gcd(Math.abs((long) coords[2 * j] - coords[2 * i]), Math.abs((long) coords[2 * j + 1] - coords[2 * i + 1]));
+        }
+        return points;
+    }
+
+    /**
+     * Number of lattice points strictly inside the simple polygon, using Pick's theorem: A = I + B / 2 - 1
+     * @link <a href="https://artofproblemsolving.com/wiki/index.php/Pick%27s_Theorem">Pick's Theorem</a>
+     * @param coords    packed vertices
+     * @param n         number of vertices
+     * @return          number of lattice points inside
+     */
+    public static long interiorPoints(int[] coords, int n) {
+        return (doubledArea(coords, n) - boundaryPoints(coords, n) + 2) / 2;
+    }
+
+    /**
+     * Perimeter of the polygon. Squared lengths of the edges are exact, only the square roots are rounded.
+     * @param coords    packed vertices
+     * @param n         number of vertices
+     * @return          perimeter of the polygon
+     */
+    public static double perimeter(int[] coords, int n) {
+        double perimeter = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            long dy = (long) coords[2 * j] - coords[2 * i], dx = (long) coords[2 * j + 1] - coords[2 * i + 1];
+            perimeter += Math.sqrt((double) (dy * dy + dx * dx));
+        }
+        return perimeter;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * @return doubled signed area of the triangle (a, b, c), positive if c is on the left of a->b
+     */
+    static long cross(int ay, int ax, int by, int bx, int cy, int cx) {
+        return (long) (bx - ax) * (cy - ay) - (long) (by - ay) * (cx - ax);
+    }
+
+    /**
+     * @return true if the closed segments (a, b) and (c, d) have at least one common point
+     */
+    static boolean segmentsIntersect(int ay, int ax, int by, int bx, int cy, int cx, int dy, int dx) {
+        long d1 = Long.signum(cross(cy, cx, dy, dx, ay, ax));
+        long d2 = Long.signum(cross(cy, cx, dy, dx, by, bx));
+        long d3 = Long.signum(cross(ay, ax, by, bx, cy, cx));
+        long d4 = Long.signum(cross(ay, ax, by, bx, dy, dx));
+        if (d1 * d2 < 0 && d3 * d4 < 0) return true;
+        return (d1 == 0 && onSegment(cy, cx, dy, dx, ay, ax))
+                || (d2 == 0 && onSegment(cy, cx, dy, dx, by, bx))
+                || (d3 == 0 && onSegment(ay, ax, by, bx, cy, cx))
+                || (d4 == 0 && onSegment(ay, ax, by, bx, dy, dx));
+    }
+
+    /**
+     * @return true if collinear point p lies on the segment (a, b)
+     */
+    private static boolean onSegment(int ay, int ax, int by, int bx, int py, int px) {
+        return Math.min(ay, by) <= py && py <= Math.max(ay, by) && Math.min(ax, bx) <= px && px <= Math.max(ax, bx);
+    }
+
+    /**
+     * Checks if the closed polygon is simple: no vertex repeats, edges have no common points except
+     * the shared vertex of two neighbouring edges, and no edge goes back over the previous one.
+     * Uses the sweep line (Shamos-Hoey), so it costs O(n log n) instead of testing every pair of edges.
+     * @param coords    packed vertices
+     * @param n         number of vertices
+     * @return          true if the polygon is simple
+     */
+    public static boolean isSimple(int[] coords, int n) {
+        if (n < 3) {
+            return false;
+        }
+        Set<Long> vertices = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            if (!vertices.add(((long) coords[2 * i] << 32) | (coords[2 * i + 1] & 0xffffffffL))) {
+                return false;
+            }
+        }
+        return new Sweep(coords, n).run();
+    }
+
+    /**
+     * Sweep line over x (ties by y, as if the line was slightly rotated, so vertical edges need no special case).
+     * The status is the set of edges crossed by the line ordered by y, only neighbours in it are tested
+     * for intersection. Edges are numbered by their first vertex, edge i goes from vertex i to vertex i + 1.
+     */
+    private static final class Sweep {
+        private final int[] coords;
+        private final int n;
+        /**
+         * Left (smaller by x, then y) and right vertex of every edge
+         */
+        private final int[] left, right;
+        /**
+         * Current event point
+         */
+        private int py, px;
+        /**
+         * Set by the comparator, when two edges (that are not allowed to) meet on the sweep line
+         */
+        private boolean found = false;
+
+        Sweep(int[] coords, int n) {
+            this.coords = coords;
+            this.n = n;
+            this.left = new int[n];
+            this.right = new int[n];
+            for (int edge = 0; edge < n; edge++) {
+                int a = edge, b = (edge + 1) % n;
+                boolean aFirst = vertexX(a) < vertexX(b) || (vertexX(a) == vertexX(b) && vertexY(a) < vertexY(b));
+                left[edge] = aFirst ? a : b;
+                right[edge] = aFirst ? b : a;
+            }
+        }
+
+        boolean run() {
+            // event = 2 * edge + (0 for the right end, 1 for the left end); right ends go first on the same point,
+            // so an edge ending in a vertex leaves the status before the next edge starting there is added
+            Integer[] events = new Integer[2 * n];
+            for (int i = 0; i < 2 * n; i++) {
+                events[i] = i;
+            }
+            Arrays.sort(events, Comparator.comparingInt((Integer e) -> eventX(e))
+                    .thenComparingInt(this::eventY)
+                    .thenComparingInt(e -> e & 1));
+
+            TreeSet<Integer> status = new TreeSet<>(this::compareEdges);
+            for (int event : events) {
+                int edge = event >> 1;
+                px = eventX(event);
+                py = eventY(event);
+                if ((event & 1) == 1) {
+                    status.add(edge);
+                    Integer lower = status.lower(edge), higher = status.higher(edge);
+                    if (found || (lower != null && intersect(lower, edge)) || (higher != null && intersect(edge, higher))) {
+                        return false;
+                    }
+                } else {
+                    Integer lower = status.lower(edge), higher = status.higher(edge);
+                    status.remove(edge);
+                    if (found || (lower != null && higher != null && intersect(lower, higher))) {
+                        return false;
+                    }
+                }
+            }
+            return !found;
+        }
+
+        private int vertexY(int i) {
+            return coords[2 * (i % n)];
+        }
+
+        private int vertexX(int i) {
+            return coords[2 * (i % n) + 1];
+        }
+
+        private int eventX(int event) {
+            int edge = event >> 1;
+            return vertexX((event & 1) == 1 ? left[edge] : right[edge]);
+        }
+
+        private int eventY(int event) {
+            int edge = event >> 1;
+            return vertexY((event & 1) == 1 ? left[edge] : right[edge]);
+        }
+
+        private boolean adjacent(int e, int f) {
+            return (e + 1) % n == f || (f + 1) % n == e;
+        }
+
+        /**
+         * @return true if the edges have a common point, that is not allowed
+         */
+        private boolean intersect(int e, int f) {
+            if (adjacent(e, f)) {
+                // neighbouring edges share a vertex, they are wrong only if the second one goes back over the first
+                int first = (e + 1) % n == f ? e : f;
+                int a = first, b = first + 1, c = first + 2;
+                return cross(vertexY(a), vertexX(a), vertexY(b), vertexX(b), vertexY(c), vertexX(c)) == 0
+                        && (long) (vertexY(a) - vertexY(b)) * (vertexY(c) - vertexY(b))
+                        + (long) (vertexX(a) - vertexX(b)) * (vertexX(c) - vertexX(b)) > 0;
+            }
+            return segmentsIntersect(vertexY(e), vertexX(e), vertexY(e + 1), vertexX(e + 1),
+                    vertexY(f), vertexX(f), vertexY(f + 1), vertexX(f + 1));
+        }
+
+        /**
+         * Orders edges by y on the sweep line in the current event point. Edges meeting on the sweep line
+         * are ordered by their direction; unless they are neighbours meeting in their shared vertex,
+         * such a meeting is an intersection and it is reported through the found flag.
+         */
+        private int compareEdges(Integer e, Integer f) {
+            if (e.equals(f)) {
+                return 0;
+            }
+            // y on the sweep line is num / den (relative to py), den > 0
+            int el = left[e], er = right[e], fl = left[f], fr = right[f];
+            long eden = (long) vertexX(er) - vertexX(el), fden = (long) vertexX(fr) - vertexX(fl);
+            long enum_ = eden == 0 ? 0 : (long) (vertexY(el) - py) * eden + (long) (vertexY(er) - vertexY(el)) * (px - vertexX(el));
+            long fnum = fden == 0 ? 0 : (long) (vertexY(fl) - py) * fden + (long) (vertexY(fr) - vertexY(fl)) * (px - vertexX(fl));
+            if (eden == 0) eden = 1;
+            if (fden == 0) fden = 1;
+            int cmp = compareProducts(enum_, fden, fnum, eden);
+            if (cmp != 0) {
+                return cmp;
+            }
+            // the same y: compare directions, both edges go to the right (or up)
+            long slope = (long) (vertexY(er) - vertexY(el)) * (vertexX(fr) - vertexX(fl))
+                    - (long) (vertexY(fr) - vertexY(fl)) * (vertexX(er) - vertexX(el));
+            int shared = (e + 1) % n == f ? f : (f + 1) % n == e ? e : -1;
+            boolean meetInShared = shared >= 0 && vertexX(shared) == px
+                    && (vertexX(el) != vertexX(er) || vertexY(shared) == py)
+                    && (vertexX(fl) != vertexX(fr) || vertexY(shared) == py);
+            if (!meetInShared || slope == 0) {
+                found = true;
+            } else if (shared == er && shared == fr) {
+                // both end in the shared vertex: the steeper one was lower before it
+                return Long.signum(-slope);
+            }
+            return slope != 0 ? Long.signum(slope) : Integer.compare(e, f);
+        }
+
+        /**
+         * Exact comparison of a * b and c * d (128-bit products)
+         */
+        private static int compareProducts(long a, long b, long c, long d) {
+            long high1 = Math.multiplyHigh(a, b), high2 = Math.multiplyHigh(c, d);
+            if (high1 != high2) {
+                return Long.compare(high1, high2);
+            }
+            return Long.compareUnsigned(a * b, c * d);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.project.engine;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Undo/redo history of the game as a log of commands. Every command remembers only what it needs to revert
+ * itself (the figure and the old color), not a copy of the board, so the history could be unbounded.
+ * Undo and redo cost only as much as the command itself (O(1) for closing or deleting a figure,
+ * O(class size) for recoloring a class), not the size of the board.
+ */
+public class History {
+    /**
+     * One undoable change of the game state
+     */
+    public interface Command {
+        void apply(GameState state);
+
+        void revert(GameState state);
+
+        /**
+         * @return figures, whose region has to be redrawn after applying or reverting the command
+         */
+        List<Figure> affected(GameState state);
+    }
+
+    /**
+     * Figure was closed (and put on the board)
+     */
+    static class CloseFigure implements Command {
+        private final Figure figure;
+
+        CloseFigure(Figure figure) {
+            this.figure = figure;
+        }
+
+        @Override
+        public void apply(GameState state) {
+            state.addFigure(figure);
+        }
+
+        @Override
+        public void revert(GameState state) {
+            state.removeFigure(figure);
+        }
+
+        @Override
+        public List<Figure> affected(GameState state) {
+            return List.of(figure);
+        }
+    }
+
+    /**
+     * Figure was deleted from the board
+     */
+    static class DeleteFigure implements Command {
+        private final Figure figure;
+
+        DeleteFigure(Figure figure) {
+            this.figure = figure;
+        }
+
+        @Override
+        public void apply(GameState state) {
+            state.removeFigure(figure);
+        }
+
+        @Override
+        public void revert(GameState state) {
+            state.addFigure(figure);
+        }
+
+        @Override
+        public List<Figure> affected(GameState state) {
+            return List.of(figure);
+        }
+    }
+
+    /**
+     * Shared color of the class was changed. The class is found by its member, because undoing other commands
+     * could delete and create the class object again.
+     */
+    static class RecolorClass implements Command {
+        private final Figure member;
+        private final int oldColor;
+        private final int newColor;
+
+        RecolorClass(Figure member, int oldColor, int newColor) {
+            this.member = member;
+            this.oldColor = oldColor;
+            this.newColor = newColor;
+        }
+
+        @Override
+        public void apply(GameState state) {
+            state.recolorClass(member, newColor);
+        }
+
+        @Override
+        public void revert(GameState state) {
+            state.recolorClass(member, oldColor);
+        }
+
+        @Override
+        public List<Figure> affected(GameState state) {
+            ShapeIndex.ShapeClass shapeClass = state.getShapeIndex().classOf(member);
+            return shapeClass == null ? List.of() : List.copyOf(shapeClass.getMembers());
+        }
+    }
+
+    private final ArrayDeque<Command> undo = new ArrayDeque<>();
+    private final ArrayDeque<Command> redo = new ArrayDeque<>();
+
+    /**
+     * Remembers command, that was already applied. Commands undone before are forgotten.
+     * @param command   applied command
+     */
+    void record(Command command) {
+        undo.push(command);
+        redo.clear();
+    }
+
+    /**
+     * Reverts the last applied command
+     * @param state game state the command was applied to
+     * @return      reverted command or null if there is nothing to undo
+     */
+    public Command undo(GameState state) {
+        Command command = undo.poll();
+        if (command != null) {
+            command.revert(state);
+            redo.push(command);
+        }
+        return command;
+    }
+
+    /**
+     * Applies the last reverted command again
+     * @param state game state
+     * @return      applied command or null if there is nothing to redo
+     */
+    public Command redo(GameState state) {
+        Command command = redo.poll();
+        if (command != null) {
+            command.apply(state);
+            undo.push(command);
+        }
+        return command;
+    }
+
+    public boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redo.isEmpty();
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pattern search on the board: all drawn copies of a shape (moved, rotated or reflected) and all free placements
+ * of the shape, where it would not overlap any drawn figure.
+ * Copies are the congruence class of the shape, so they are found by one hash lookup in the {@link ShapeIndex},
+ * not by comparing the shape with every figure.
+ * Free placements are found by correlation of the shape's cells with the covered cells of the region:
+ * every distinct orientation of the shape (one per coset of its {@link SymmetryGroup}) is rasterized once
+ * into spans of cells, the region is read from the {@link Coverage} as prefix counts of covered cells per row,
+ * so checking one span of a placement is O(1) and the whole search is O(region area * spans * orientations),
+ * independent of the number of figures on the board.
+ */
+public class PatternSearch {
+    /**
+     * Free placements found in the region, kept as (orientation, y, x) triples
+     */
+    public static final class Placements {
+        /**
+         * Distinct orientations of the shape moved to the origin (min y = min x = 0)
+         */
+        final Figure[] orientations;
+        int[] data = new int[48];
+        int size = 0;
+
+        Placements(Figure[] orientations) {
+            this.orientations = orientations;
+        }
+
+        void add(int orientation, int y, int x) {
+            if (3 * size == data.length) {
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            data[3 * size] = orientation;
+            data[3 * size + 1] = y;
+            data[3 * size + 2] = x;
+            size++;
+        }
+
+        /**
+         * @return number of free placements
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param i     index of the placement
+         * @param color color of the placed figure (ARGB)
+         * @return      the shape placed on the i-th free placement (a new finished figure, not on the board)
+         */
+        public Figure get(int i, int color) {
+            Figure shape = orientations[data[3 * i]];
+            int n = shape.number_of_vertices();
+            int[] coords = new int[2 * n];
+            for (int v = 0; v < n; v++) {
+                coords[2 * v] = shape.getY(v) + data[3 * i + 1];
+                coords[2 * v + 1] = shape.getX(v) + data[3 * i + 2];
+            }
+            return new Figure(color, coords, n);
+        }
+
+        /**
+         * @param y     y coordinate of the point
+         * @param x     x coordinate of the point
+         * @return      index of the placement, whose centre is the closest to the point, -1 if there is none
+         */
+        public int nearest(double y, double x) {
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                Figure shape = orientations[data[3 * i]];
+                double dy = data[3 * i + 1] + shape.getMaxY() / 2.0 - y;
+                double dx = data[3 * i + 2] + shape.getMaxX() / 2.0 - x;
+                double distance = dy * dy + dx * dx;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Spans of cells of one orientation relative to the origin, kept as (row, from, to) triples
+     */
+    private static final class Spans implements Coverage.SpanVisitor {
+        int[] data = new int[48];
+        int size = 0;
+
+        @Override
+        public void span(int y, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            if (3 * size == data.length) {
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            data[3 * size] = y;
+            data[3 * size + 1] = from;
+            data[3 * size + 2] = to;
+            size++;
+        }
+    }
+
+    private PatternSearch() {
+    }
+
+    /**
+     * @param index     index of the drawn figures
+     * @param shape     finished figure
+     * @return          all drawn figures congruent with the shape (in no particular order, do not modify)
+     */
+    public static List<Figure> copies(ShapeIndex index, Figure shape) {
+        ShapeIndex.ShapeClass shapeClass = index.classOf(shape);
+        return shapeClass == null ? List.of() : shapeClass.getMembers();
+    }
+
+    /**
+     * Finds all placements of the shape (moved, rotated or reflected) with all vertices inside of the region,
+     * that do not cover any cell covered by a drawn figure
+     * @param coverage  coverage of the board
+     * @param shape     finished figure
+     * @param minY      min y of the region
+     * @param minX      min x of the region
+     * @param maxY      max y of the region
+     * @param maxX      max x of the region
+     * @return          free placements
+     */
+    public static Placements freePlacements(Coverage coverage, Figure shape, int minY, int minX, int maxY, int maxX) {
+        int[] transforms = shape.getSymmetryGroup().cosetRepresentatives();
+        Figure[] orientations = new Figure[transforms.length];
+        for (int i = 0; i < transforms.length; i++) {
+            orientations[i] = orient(shape, transforms[i]);
+        }
+        Placements placements = new Placements(orientations);
+        if (maxY <= minY || maxX <= minX) {
+            return placements;
+        }
+        int width = maxX - minX;
+        int[] prefix = coverage.coveredPrefix(minY, minX, maxY, maxX);
+        Spans spans = new Spans();
+        for (int o = 0; o < orientations.length; o++) {
+            Figure figure = orientations[o];
+            spans.size = 0;
+            coverage.rasterize(figure, spans);
+            int[] span = spans.data;
+            int n = spans.size;
+            for (int y = minY; y + figure.getMaxY() <= maxY; y++) {
+                for (int x = minX; x + figure.getMaxX() <= maxX; x++) {
+                    boolean free = true;
+                    for (int s = 0; s < n && free; s++) {
+                        int row = (y + span[3 * s] - minY) * (width + 1) - minX + x;
+                        free = prefix[row + span[3 * s + 2]] == prefix[row + span[3 * s + 1]];
+                    }
+                    if (free) {
+                        placements.add(o, y, x);
+                    }
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * @return the shape transformed and moved to the origin
+     */
+    private static Figure orient(Figure shape, int transform) {
+        int n = shape.number_of_vertices();
+        int[] coords = new int[2 * n];
+        int minY = Integer.MAX_VALUE, minX = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            coords[2 * i] = SymmetryGroup.transformY(transform, shape.getY(i), shape.getX(i));
+            coords[2 * i + 1] = SymmetryGroup.transformX(transform, shape.getY(i), shape.getX(i));
+            minY = Math.min(minY, coords[2 * i]);
+            minX = Math.min(minX, coords[2 * i + 1]);
+        }
+        for (int i = 0; i < n; i++) {
+            coords[2 * i] -= minY;
+            coords[2 * i + 1] -= minX;
+        }
+        return new Figure(shape.getColor(), coords, n);
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Figures closed by the user, that are being classified on virtual threads, so closing a big figure does not freeze
+ * the UI. The results are applied on the owner's thread (the one the state belongs to, e.g. the FX thread),
+ * in the order the figures were closed. All methods have to be called on the owner's thread.
+ * <p>
+ * The figures are kept by identity in a queue and not in a map: a figure is hashed by its shape, which is computed
+ * by the classification itself, so its hash changes on the classifier thread while the figure is pending.
+ */
+public class PendingFigures {
+    /**
+     * Receives the classified figures on the owner's thread
+     */
+    public interface Listener {
+        /**
+         * @param figure    figure put on the board or back to drawing
+         * @param closed    false if its edges cross
+         */
+        void classified(Figure figure, boolean closed);
+
+        /**
+         * @param figure    figure, that is thrown away
+         * @param error     reason the classification failed
+         */
+        void failed(Figure figure, Throwable error);
+    }
+
+    private record Pending(Figure figure, CompletableFuture<Boolean> closing) {
+    }
+
+    private final GameState state;
+    private final Executor owner;
+    private final Listener listener;
+    private final ExecutorService classifier = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * Pending figures in the order they were closed, the head is the next one to be applied
+     */
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    /**
+     * Tail of the chain applying classified figures, every figure waits for the previous one
+     */
+    private CompletableFuture<Void> applied = CompletableFuture.completedFuture(null);
+
+    /**
+     * Class constructor.
+     * @param state     state the figures are put into
+     * @param owner     executor running tasks on the owner's thread (e.g. {@code Platform::runLater})
+     * @param listener  receiver of the classified figures
+     */
+    public PendingFigures(GameState state, Executor owner, Listener listener) {
+        this.state = state;
+        this.owner = owner;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the classification of the figure, it is put on the board (or back to drawing, if its edges cross)
+     * after all figures added before it
+     * @param figure    unfinished figure taken by {@link GameState#cancelDrawing()}
+     */
+    public void add(Figure figure) {
+        Pending entry = new Pending(figure, CompletableFuture.supplyAsync(() -> state.classify(figure), classifier));
+        pending.add(entry);
+        // a failed figure does not stop the ones closed after it
+        applied = applied
+                .thenCombine(entry.closing.handle((closed, error) -> error), (previous, error) -> error)
+                .thenAcceptAsync(error -> apply(entry, error), owner);
+    }
+
+    /**
+     * @param error cause of the failed classification or null
+     */
+    private void apply(Pending entry, Throwable error) {
+        if (pending.peekFirst() != entry) {
+            // already put on the board by finish()
+            return;
+        }
+        pending.removeFirst();
+        if (error != null) {
+            listener.failed(entry.figure, error instanceof CompletionException ? error.getCause() : error);
+            return;
+        }
+        boolean closed = entry.closing.join();
+        if (closed) {
+            state.addClosed(entry.figure);
+        } else {
+            // the figure could be fixed, if no other figure was started in the meantime
+            state.continueDrawing(entry.figure);
+        }
+        listener.classified(entry.figure, closed);
+    }
+
+    /**
+     * @return figures being classified in the order they were closed (e.g. to draw them in the provisional color)
+     */
+    public List<Figure> getFigures() {
+        List<Figure> figures = new ArrayList<>(pending.size());
+        for (Pending entry : pending) {
+            figures.add(entry.figure);
+        }
+        return figures;
+    }
+
+    /**
+     * Waits for all pending figures and puts the closed ones on the board (without notifying the listener),
+     * e.g. before the state is saved. No figures can be added afterwards.
+     */
+    public void finish() {
+        for (Pending entry : pending) {
+            if (entry.closing.handle((closed, error) -> error == null && closed).join()) {
+                state.addClosed(entry.figure);
+            }
+        }
+        pending.clear();
+        classifier.shutdown();
+    }
+}
@@ -0,0 +1,372 @@
+package com.project.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates all distinct simple polygons on the lattice of size x size squares (vertices in [0, size] x [0, size])
+ * with 3 to maxVertices vertices, up to rotations, reflections and translations (the same congruence as
+ * {@link Figure#equals(Object)}). Every vertex of the generated polygon is a real corner: no three consecutive
+ * vertices are collinear.
+ * The search is depth first over vertex sequences and the most of the duplicates are cut off before the polygon
+ * is built:
+ * 1. the first vertex is the smallest one (by y, then x) and lies on the row y = 0 (translation)
+ * 2. the second vertex is smaller than the last one (direction of the traversal)
+ * 3. every new edge is checked against the previous ones, so self-intersecting sequences are not extended
+ * The rest (rotations and reflections) are deduplicated by the concurrent set of canonical keys.
+ * Top levels of the search tree are split into fork-join tasks, so it scales with the number of cores.
+ * When the set would not fit into memory, use {@link #stream()}: it is lazy and emits every polygon only
+ * in its canonical orientation, so no set of already seen polygons is needed.
+ */
+public class PolygonEnumerator {
+    /**
+     * Depth of the search tree, where the tasks stop forking and continue sequentially
+     */
+    private static final int FORK_DEPTH = 2;
+
+    private final int size;
+    private final int maxVertices;
+
+    /**
+     * Class constructor specifying size of the lattice and max number of vertices.
+     * @param size          number of squares in one direction
+     * @param maxVertices   max number of vertices of the polygon (at least 3)
+     */
+    public PolygonEnumerator(int size, int maxVertices) {
+        if (size < 1 || maxVertices < 3) {
+            throw new IllegalArgumentException("size must be positive and maxVertices at least 3");
+        }
+        this.size = size;
+        this.maxVertices = maxVertices;
+    }
+
+    /**
+     * Enumerates all distinct polygons in the common fork-join pool
+     * @return set of all distinct polygons
+     */
+    public Set<Figure> enumerate() {
+        return enumerate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Enumerates all distinct polygons in the given pool
+     * @param pool  fork-join pool to run the search in
+     * @return      set of all distinct polygons
+     */
+    public Set<Figure> enumerate(ForkJoinPool pool) {
+        Set<Figure> result = ConcurrentHashMap.newKeySet();
+        pool.invoke(new SearchTask(new int[2 * maxVertices], 0, result));
+        return result;
+    }
+
+    /**
+     * Lazy stream of all distinct polygons. Memory does not depend on the number of polygons: every polygon is
+     * emitted only in its canonical orientation (see {@link #isCanonical(int[], int, int[])}), so nothing has to be
+     * remembered. The stream is split by the first two vertices, so it could be run in parallel.
+     * @return stream of all distinct polygons
+     */
+    public Stream<Figure> stream() {
+        List<int[]> prefixes = new ArrayList<>();
+        forEachNextVertex(new int[0], 0, (y0, x0) -> {
+            int[] first = new int[2 * maxVertices];
+            first[0] = y0;
+            first[1] = x0;
+            forEachNextVertex(first, 1, (y1, x1) -> {
+                int[] prefix = first.clone();
+                prefix[2] = y1;
+                prefix[3] = x1;
+                prefixes.add(prefix);
+            });
+        });
+        return prefixes.stream().flatMap(prefix -> StreamSupport.stream(new ShapeSpliterator(prefix, 2), false));
+    }
+
+    /**
+     * Counts all distinct polygons in parallel without holding them in memory
+     * @return number of distinct polygons
+     */
+    public long count() {
+        return stream().parallel().count();
+    }
+
+    /**
+     * Checks if the figure is one of the enumerated polygons: after deleting useless vertices it has 3 to maxVertices
+     * real corners, fits into the lattice and its edges do not touch each other. Only the canonical key is used.
+     * @param figure    finished figure
+     * @return          true if the figure is one of the enumerated polygons
+     */
+    public boolean contains(Figure figure) {
+        long[] key = figure.getKey();
+        if (key == null || key.length < 3 || key.length > maxVertices) {
+            return false;
+        }
+        int n = key.length;
+        int[] v = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            v[2 * i] = (int) (key[i] >>> 32);
+            v[2 * i + 1] = (int) key[i];
+            if (v[2 * i] > size || v[2 * i + 1] > size) {
+                return false;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int a = i, b = (i + 1) % n, c = (i + 2) % n;
+            if (Geometry.cross(v[2 * a], v[2 * a + 1], v[2 * b], v[2 * b + 1], v[2 * c], v[2 * c + 1]) == 0) {
+                return false;
+            }
+        }
+        return Geometry.isSimple(v, n);
+    }
+
+    /**
+     * The same depth first search as {@link #search(int[], int, Set)}, but with explicit stack,
+     * so it could stop after every found polygon
+     */
+    private class ShapeSpliterator extends Spliterators.AbstractSpliterator<Figure> {
+        private final int[] vertices;
+        /**
+         * next[d] is the next candidate (y * (size + 1) + x) for the vertex on the position d
+         */
+        private final int[] next;
+        private final int baseLength;
+        private final int[] scratch;
+        private int length;
+        private boolean closeChecked = false;
+
+        ShapeSpliterator(int[] prefix, int prefixLength) {
+            super(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.vertices = prefix.clone();
+            this.next = new int[maxVertices + 1];
+            this.baseLength = prefixLength;
+            this.length = prefixLength;
+            this.scratch = new int[2 * maxVertices];
+            next[length] = vertices[1] + 1;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Figure> action) {
+            int maxIndex = (size + 1) * (size + 1) - 1;
+            while (true) {
+                if (!closeChecked) {
+                    closeChecked = true;
+                    if (length >= 3 && canClose(vertices, length) && isCanonical(vertices, length, scratch)) {
+                        action.accept(new Figure(vertices, length));
+                        return true;
+                    }
+                }
+                boolean extended = false;
+                if (length < maxVertices) {
+                    while (next[length] <= maxIndex) {
+                        int index = next[length]++;
+                        int y = index / (size + 1), x = index % (size + 1);
+                        if (canAppend(vertices, length, y, x)) {
+                            vertices[2 * length] = y;
+                            vertices[2 * length + 1] = x;
+                            length++;
+                            // candidates are greater than the first vertex (it lies on the row y = 0)
+                            next[length] = vertices[1] + 1;
+                            closeChecked = false;
+                            extended = true;
+                            break;
+                        }
+                    }
+                }
+                if (extended) {
+                    continue;
+                }
+                if (length == baseLength) {
+                    return false;
+                }
+                length--;
+            }
+        }
+    }
+
+    /**
+     * Checks that the polygon (already starting with its smallest vertex and going in the canonical direction)
+     * is not greater than any of its rotations and reflections written in the same way
+     * @param v         packed vertices
+     * @param n         number of vertices
+     * @param scratch   array for transformed vertices (at least 2 * n)
+     * @return          true if the polygon is written in its canonical orientation
+     */
+    private static boolean isCanonical(int[] v, int n, int[] scratch) {
+        for (int transform = 1; transform < 8; transform++) {
+            boolean swap = (transform & 4) != 0;
+            int signY = (transform & 2) != 0 ? -1 : 1;
+            int signX = (transform & 1) != 0 ? -1 : 1;
+            int min_y = Integer.MAX_VALUE, min_x = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                int y = signY * (swap ? v[2 * i + 1] : v[2 * i]);
+                int x = signX * (swap ? v[2 * i] : v[2 * i + 1]);
+                scratch[2 * i] = y;
+                scratch[2 * i + 1] = x;
+                if (y < min_y) min_y = y;
+                if (x < min_x) min_x = x;
+            }
+            int start = 0;
+            for (int i = 0; i < n; i++) {
+                scratch[2 * i] -= min_y;
+                scratch[2 * i + 1] -= min_x;
+                if (compare(scratch, i, scratch, start) < 0) start = i;
+            }
+            boolean forward = compare(scratch, (start + 1) % n, scratch, (start - 1 + n) % n) < 0;
+            for (int k = 0; k < n; k++) {
+                int index = forward ? (start + k) % n : (start - k + n) % n;
+                int cmp = compare(scratch, index, v, k);
+                if (cmp < 0) return false;
+                if (cmp > 0) break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares i-th vertex of a with j-th vertex of b (by y, then x)
+     */
+    private static int compare(int[] a, int i, int[] b, int j) {
+        int cmp = Integer.compare(a[2 * i], b[2 * j]);
+        return cmp != 0 ? cmp : Integer.compare(a[2 * i + 1], b[2 * j + 1]);
+    }
+
+    /**
+     * Part of the search tree below the fixed prefix of vertices
+     */
+    private class SearchTask extends RecursiveAction {
+        private final int[] prefix;
+        private final int length;
+        private final Set<Figure> result;
+
+        SearchTask(int[] prefix, int length, Set<Figure> result) {
+            this.prefix = prefix;
+            this.length = length;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (length >= FORK_DEPTH) {
+                search(prefix, length, result);
+                return;
+            }
+            List<SearchTask> tasks = new ArrayList<>();
+            forEachNextVertex(prefix, length, (y, x) -> {
+                int[] next = prefix.clone();
+                next[2 * length] = y;
+                next[2 * length + 1] = x;
+                tasks.add(new SearchTask(next, length + 1, result));
+            });
+            invokeAll(tasks);
+        }
+    }
+
+    private interface VertexConsumer {
+        void accept(int y, int x);
+    }
+
+    /**
+     * Calls the action for every vertex, that could extend the sequence without breaking the rules
+     */
+    private void forEachNextVertex(int[] vertices, int length, VertexConsumer action) {
+        if (length == 0) {
+            // the smallest vertex of the polygon lies on the first row
+            for (int x = 0; x <= size; x++) {
+                action.accept(0, x);
+            }
+            return;
+        }
+        int y0 = vertices[0], x0 = vertices[1];
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                if (y < y0 || (y == y0 && x <= x0)) continue;
+                if (canAppend(vertices, length, y, x)) {
+                    action.accept(y, x);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sequential depth first search below the prefix
+     */
+    private void search(int[] vertices, int length, Set<Figure> result) {
+        if (length >= 3 && canClose(vertices, length)) {
+            result.add(new Figure(vertices, length));
+        }
+        if (length == maxVertices) {
+            return;
+        }
+        forEachNextVertex(vertices, length, (y, x) -> {
+            vertices[2 * length] = y;
+            vertices[2 * length + 1] = x;
+            search(vertices, length + 1, result);
+        });
+    }
+
+    /**
+     * Checks that the vertex is new, it does not make the last corner straight and the new edge
+     * does not touch any previous edge
+     */
+    private static boolean canAppend(int[] v, int length, int y, int x) {
+        for (int i = 0; i < length; i++) {
+            if (v[2 * i] == y && v[2 * i + 1] == x) return false;
+        }
+        if (length < 2) {
+            return true;
+        }
+        int last = length - 1;
+        if (Geometry.cross(v[2 * last - 2], v[2 * last - 1], v[2 * last], v[2 * last + 1], y, x) == 0) {
+            return false;
+        }
+        // new edge (last, new) against edges (i-1, i) that are not adjacent to it
+        for (int i = 1; i < last; i++) {
+            if (Geometry.segmentsIntersect(v[2 * i - 2], v[2 * i - 1], v[2 * i], v[2 * i + 1],
+                    v[2 * last], v[2 * last + 1], y, x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the closing edge (last, first): both corners at the first and the last vertex must be real,
+     * the edge must not touch other edges, polygon must touch the column x = 0 and the direction must be canonical
+     */
+    private static boolean canClose(int[] v, int length) {
+        int last = length - 1;
+        // second vertex smaller than the last one
+        if (v[2] > v[2 * last] || (v[2] == v[2 * last] && v[3] > v[2 * last + 1])) {
+            return false;
+        }
+        boolean touchesColumn = false;
+        for (int i = 0; i < length; i++) {
+            if (v[2 * i + 1] == 0) {
+                touchesColumn = true;
+                break;
+            }
+        }
+        if (!touchesColumn) {
+            return false;
+        }
+        if (Geometry.cross(v[2 * last - 2], v[2 * last - 1], v[2 * last], v[2 * last + 1], v[0], v[1]) == 0
+                || Geometry.cross(v[2 * last], v[2 * last + 1], v[0], v[1], v[2], v[3]) == 0) {
+            return false;
+        }
+        for (int i = 2; i < last; i++) {
+            if (Geometry.segmentsIntersect(v[2 * i - 2], v[2 * i - 1], v[2 * i], v[2 * i + 1],
+                    v[2 * last], v[2 * last + 1], v[0], v[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,431 @@
+package com.project.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saved session: a snapshot with all finished figures and an append-only journal with the edits made after it.
+ * Figures are stored compactly: color, vertices as zigzag varint deltas (or only the orientation and translation
+ * of the canonical key, if the figure shares the geometry of its class) and the canonical key (so loading does
+ * not compute any symmetries). The files are read at once into heap buffers (a mapped file could not be replaced
+ * or truncated on Windows while the mapping is alive), every edit is appended to the journal with one small write,
+ * and saving a new snapshot empties the journal.
+ * Format of the snapshot: magic, version, generation, number of figures (long), figure records.
+ * Format of the journal: magic, version, generation, then operations: ADD followed by a figure record,
+ * DELETE followed by the sequence number of the figure, or RECOLOR followed by the sequence number of a member
+ * of the class and the new color. Undo and redo are journaled as the changes they make.
+ * The journal is replayed only if its generation is the same as the snapshot's one, so a crash between writing
+ * a new snapshot and emptying the journal does not apply the same edits twice.
+ */
+public class SessionStore implements Closeable {
+    private static final int SNAPSHOT_MAGIC = 0x53514753; // SQGS
+    private static final int JOURNAL_MAGIC = 0x5351474a; // SQGJ
+    private static final int VERSION = 3;
+    /**
+     * Oldest version, that could be read (version 2 has no orientation in the figure records)
+     */
+    private static final int OLDEST_VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final byte ADD = 1;
+    private static final byte DELETE = 2;
+    private static final byte RECOLOR = 3;
+
+    /**
+     * The record ends before all of its bytes, the file was cut off while it was written
+     */
+    static final class TornRecordException extends IOException {
+        TornRecordException() {
+            super("record is cut off");
+        }
+    }
+
+    private final Path snapshot;
+    private final Path journal;
+    private FileChannel journalChannel;
+    /**
+     * Generation of the current snapshot, it grows with every save
+     */
+    private long generation = 0;
+    /**
+     * Reused buffer for encoding, it grows with the biggest figure
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * Class constructor specifying directory of the session (it is created if missing).
+     * @param directory     directory with session.bin and journal.bin
+     * @throws IOException  if the directory could not be created
+     */
+    public SessionStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshot = directory.resolve("session.bin");
+        this.journal = directory.resolve("journal.bin");
+    }
+
+    /**
+     * Loads the snapshot and replays the journal into the empty state, then opens the journal for appending.
+     * A torn operation at the end of the journal (the program was killed while writing it) is cut off.
+     * @param state         empty game state
+     * @throws IOException  if the files could not be read or they are not session files
+     */
+    public void load(GameState state) throws IOException {
+        boolean old = false;
+        if (Files.exists(snapshot)) {
+            ByteBuffer in = read(snapshot);
+            generation = checkHeader(in, SNAPSHOT_MAGIC, snapshot);
+            int version = in.getInt(4);
+            old = version != VERSION;
+            try {
+                long count = readLong(in);
+                for (long i = 0; i < count; i++) {
+                    state.place(readFigure(in, version));
+                }
+            } catch (TornRecordException e) {
+                throw new IOException("broken session file: " + snapshot, e);
+            }
+        }
+        long valid = 0;
+        if (Files.exists(journal) && Files.size(journal) >= HEADER_SIZE) {
+            ByteBuffer in = read(journal);
+            int version = in.remaining() >= 8 ? in.getInt(4) : VERSION;
+            if (checkHeader(in, JOURNAL_MAGIC, journal) != generation) {
+                // edits are already in the snapshot
+                in.position(in.limit());
+            } else {
+                valid = HEADER_SIZE;
+                old |= version != VERSION;
+            }
+            try {
+                while (in.hasRemaining()) {
+                    byte operation = readByte(in);
+                    if (operation == ADD) {
+                        state.place(readFigure(in, version));
+                    } else if (operation == DELETE) {
+                        Figure figure = state.getFigure(readVarint(in));
+                        if (figure != null) state.removeFigure(figure);
+                    } else if (operation == RECOLOR) {
+                        Figure member = state.getFigure(readVarint(in));
+                        int color = readInt(in);
+                        if (member != null) state.recolorClass(member, color);
+                    } else {
+                        break;
+                    }
+                    valid = in.position();
+                }
+            } catch (TornRecordException e) {
+                // torn write at the end, everything before it is valid
+            }
+        }
+        if (old) {
+            // records of the older version are rewritten at once, so the journal holds only the current one
+            save(state);
+        } else {
+            openJournal(valid);
+        }
+    }
+
+    /**
+     * Appends figure added to the board (closed or put back) to the journal
+     * @param figure        finished figure
+     * @throws IOException  if the journal could not be written
+     */
+    public void journalAdd(Figure figure) throws IOException {
+        ensureCapacity(1 + maxRecordSize(figure));
+        buffer.clear();
+        buffer.put(ADD);
+        writeFigure(buffer, figure);
+        appendToJournal();
+    }
+
+    /**
+     * Appends removal of the figure from the board to the journal
+     * @param figure        removed figure
+     * @throws IOException  if the journal could not be written
+     */
+    public void journalDelete(Figure figure) throws IOException {
+        buffer.clear();
+        buffer.put(DELETE);
+        writeVarint(buffer, figure.getSequence());
+        appendToJournal();
+    }
+
+    /**
+     * Appends the new color of the class to the journal
+     * @param member        any member of the class
+     * @param color         new color (ARGB)
+     * @throws IOException  if the journal could not be written
+     */
+    public void journalRecolor(Figure member, int color) throws IOException {
+        buffer.clear();
+        buffer.put(RECOLOR);
+        writeVarint(buffer, member.getSequence());
+        buffer.putInt(color);
+        appendToJournal();
+    }
+
+    /**
+     * Writes a new snapshot of all finished figures (through a temporary file, so the old one stays
+     * valid until the new one is complete) and empties the journal
+     * @param state         game state to save
+     * @throws IOException  if the files could not be written
+     */
+    public void save(GameState state) throws IOException {
+        Path temporary = snapshot.resolveSibling("session.bin.tmp");
+        long next = generation + 1;
+        long count = state.getFigures().size();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate(1 << 20);
+            out.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(next).putLong(count);
+            for (Figure figure : state.getFigures()) {
+                int needed = maxRecordSize(figure);
+                if (out.remaining() < needed) {
+                    out.flip();
+                    writeFully(channel, out);
+                    out = out.capacity() < needed ? ByteBuffer.allocate(needed) : out.clear();
+                }
+                writeFigure(out, figure);
+            }
+            out.flip();
+            writeFully(channel, out);
+            channel.force(false);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = next;
+        close();
+        openJournal(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journalChannel != null) {
+            journalChannel.close();
+            journalChannel = null;
+        }
+    }
+
+    /**
+     * Opens the journal for appending and cuts off everything after valid bytes,
+     * if there is nothing valid, the journal starts again with the header of the current generation
+     */
+    private void openJournal(long valid) throws IOException {
+        journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (valid < HEADER_SIZE) {
+            journalChannel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation);
+            writeFully(journalChannel, header.flip());
+        } else {
+            journalChannel.truncate(valid);
+        }
+        journalChannel.position(journalChannel.size());
+    }
+
+    private void appendToJournal() throws IOException {
+        if (journalChannel == null) {
+            openJournal(0);
+        }
+        buffer.flip();
+        writeFully(journalChannel, buffer);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(needed);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Reads the whole file into a heap buffer, nothing stays open or mapped afterwards
+     */
+    private static ByteBuffer read(Path file) throws IOException {
+        if (Files.size(file) > Integer.MAX_VALUE - 8) {
+            throw new IOException("session file is bigger than 2 GB");
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    /**
+     * @return generation from the header
+     */
+    private static long checkHeader(ByteBuffer in, int magic, Path file) throws IOException {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != magic) {
+            throw new IOException("not a session file: " + file);
+        }
+        int version = in.getInt();
+        if (version < OLDEST_VERSION || version > VERSION) {
+            throw new IOException("unsupported version " + version + " of the session file: " + file);
+        }
+        return in.getLong();
+    }
+
+    /**
+     * @return upper bound of the encoded size of the figure record
+     */
+    private static int maxRecordSize(Figure figure) {
+        return 4 + 10 + 5 + 5 + 10 * 2 * figure.number_of_vertices() + 5 + 10 * 2 * figure.getKey().length;
+    }
+
+    /**
+     * Figure record: color (4 bytes), sequence number, orientation + 1 (see {@link Figure#getOrientation()}),
+     * then either the translation of the canonical key (orientation >= 0) or the number of vertices and vertices
+     * as deltas from the previous one (orientation -1), length of the key, key vertices as deltas
+     * (all numbers are zigzag varints). Version 2 has no orientation and always the vertices.
+     */
+    static void writeFigure(ByteBuffer out, Figure figure) {
+        out.putInt(figure.getColor());
+        writeVarint(out, figure.getSequence());
+        int orientation = figure.getOrientation();
+        writeVarint(out, orientation + 1L);
+        long y = 0, x = 0;
+        if (orientation >= 0) {
+            writeVarint(out, zigzag(figure.offset_y));
+            writeVarint(out, zigzag(figure.offset_x));
+        } else {
+            int n = figure.number_of_vertices();
+            writeVarint(out, n);
+            for (int i = 0; i < n; i++) {
+                writeVarint(out, zigzag(figure.getY(i) - y));
+                writeVarint(out, zigzag(figure.getX(i) - x));
+                y = figure.getY(i);
+                x = figure.getX(i);
+            }
+        }
+        long[] key = figure.getKey();
+        writeVarint(out, key.length);
+        y = 0;
+        x = 0;
+        for (long vertex : key) {
+            long vy = (int) (vertex >>> 32), vx = (int) vertex;
+            writeVarint(out, zigzag(vy - y));
+            writeVarint(out, zigzag(vx - x));
+            y = vy;
+            x = vx;
+        }
+    }
+
+    /**
+     * @throws TornRecordException  if the buffer ends inside of the record
+     * @throws IOException          if the record is broken
+     */
+    static Figure readFigure(ByteBuffer in, int version) throws IOException {
+        int color = readInt(in);
+        long sequence = readVarint(in);
+        long orientation = version >= 3 ? readVarint(in) - 1 : -1;
+        if (orientation < -1 || orientation > Integer.MAX_VALUE) {
+            throw new IOException("broken figure record");
+        }
+        int n = 0, offset_y = 0, offset_x = 0;
+        int[] coords = null;
+        long y = 0, x = 0;
+        if (orientation >= 0) {
+            offset_y = (int) unzigzag(readVarint(in));
+            offset_x = (int) unzigzag(readVarint(in));
+        } else {
+            n = checkedLength(readVarint(in), in);
+            coords = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                y += unzigzag(readVarint(in));
+                x += unzigzag(readVarint(in));
+                coords[2 * i] = (int) y;
+                coords[2 * i + 1] = (int) x;
+            }
+        }
+        int k = checkedLength(readVarint(in), in);
+        long[] key = new long[k];
+        y = 0;
+        x = 0;
+        for (int i = 0; i < k; i++) {
+            y += unzigzag(readVarint(in));
+            x += unzigzag(readVarint(in));
+            key[i] = ((long) (int) y << 32) | ((int) x & 0xffffffffL);
+        }
+        if (orientation >= 0 && (orientation >>> 4) >= k) {
+            throw new IOException("broken figure record");
+        }
+        Figure figure;
+        if (version < 3) {
+            // the key is computed again to find its orientation, so the figure could share geometry of its class
+            figure = new Figure(color, coords, n);
+        } else if (orientation >= 0) {
+            figure = new Figure(color, key, (int) orientation, offset_y, offset_x);
+        } else {
+            figure = new Figure(color, coords, n, key);
+        }
+        figure.sequence = sequence;
+        return figure;
+    }
+
+    /**
+     * Every vertex takes at least 2 bytes, so longer lengths mean a broken file (or a torn write)
+     */
+    private static int checkedLength(long length, ByteBuffer in) throws IOException {
+        if (length > in.remaining() / 2) {
+            throw new TornRecordException();
+        }
+        if (length < 3) {
+            throw new IOException("broken figure record");
+        }
+        return (int) length;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte(in);
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("broken varint");
+    }
+
+    private static byte readByte(ByteBuffer in) throws TornRecordException {
+        if (!in.hasRemaining()) {
+            throw new TornRecordException();
+        }
+        return in.get();
+    }
+
+    private static int readInt(ByteBuffer in) throws TornRecordException {
+        if (in.remaining() < Integer.BYTES) {
+            throw new TornRecordException();
+        }
+        return in.getInt();
+    }
+
+    private static long readLong(ByteBuffer in) throws TornRecordException {
+        if (in.remaining() < Long.BYTES) {
+            throw new TornRecordException();
+        }
+        return in.getLong();
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.engine;
+
+/**
+ * Compact descriptor of a shape for similarity search: a point in 6-dimensional space, that does not change
+ * by moving, rotating or reflecting the figure, or by starting it at another vertex. Similar shapes have
+ * close descriptors (Euclidean distance), congruent shapes have equal ones (but equal descriptors do not prove
+ * congruence, use {@link Figure#equals(Object)} for that).
+ * Components:
+ * 1. log2 of the area and log2 of the perimeter (size, one doubling of the area costs 0.5)
+ * 2. magnitudes of the first 4 Fourier coefficients of the turning function (shape, independent of the size):
+ *    the angle of the boundary as a function of the normalized arc length, minus the 2*pi*s trend of every
+ *    closed polygon. A different start vertex only changes the phases of the coefficients, a rotation only the
+ *    constant term and a reflection (or the opposite direction) conjugates them, so their magnitudes stay.
+ */
+public final class ShapeDescriptor {
+    public static final int HARMONICS = 4;
+    public static final int DIMENSIONS = 2 + HARMONICS;
+    /**
+     * Weight of log2 of the area and of the perimeter
+     */
+    private static final double SIZE_WEIGHT = 0.5;
+    /**
+     * Weight of the turning function coefficients (they are in radians)
+     */
+    private static final double TURNING_WEIGHT = 1;
+
+    private final float[] values;
+
+    private ShapeDescriptor(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Computes descriptor of the canonical shape, O(n * HARMONICS)
+     * @param shape canonical shape
+     * @return      descriptor
+     */
+    static ShapeDescriptor of(CanonicalShape shape) {
+        int n = shape.size();
+        float[] values = new float[DIMENSIONS];
+        values[0] = (float) (SIZE_WEIGHT * log2(shape.getDoubledArea() / 2.0));
+        values[1] = (float) (SIZE_WEIGHT * log2(shape.getPerimeter()));
+
+        // turning function: angle of the edge i, continuous over the whole boundary
+        double[] theta = new double[n];
+        double[] length = new double[n];
+        double previous = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            double dy = shape.getY(j) - shape.getY(i), dx = shape.getX(j) - shape.getX(i);
+            double angle = Math.atan2(dy, dx);
+            theta[i] = i == 0 ? angle : theta[i - 1] + wrap(angle - previous);
+            length[i] = Math.hypot(dy, dx);
+            previous = angle;
+        }
+        // clockwise boundary turns by -2*pi, it is read as its mirror image (magnitudes do not change)
+        double total = theta[n - 1] + wrap(theta[0] - previous) - theta[0];
+        double sign = total > 0 ? 1 : -1;
+        double perimeter = shape.getPerimeter();
+        for (int k = 1; k <= HARMONICS; k++) {
+            double omega = 2 * Math.PI * k;
+            // c_k = sum of theta_i * integral of e^(-i omega s) over the edge i, minus the integral of 2*pi*s e^(-i omega s)
+            double re = 0, im = -1.0 / k;
+            double s = 0;
+            for (int i = 0; i < n; i++) {
+                double a = s / perimeter, b = (s + length[i]) / perimeter;
+                s += length[i];
+                // (e^(-i omega a) - e^(-i omega b)) / (i omega)
+                double re_diff = Math.cos(omega * a) - Math.cos(omega * b);
+                double im_diff = -Math.sin(omega * a) + Math.sin(omega * b);
+                re += sign * theta[i] * im_diff / omega;
+                im -= sign * theta[i] * re_diff / omega;
+            }
+            values[1 + k] = (float) (TURNING_WEIGHT * Math.hypot(re, im));
+        }
+        return new ShapeDescriptor(values);
+    }
+
+    private static double wrap(double angle) {
+        while (angle <= -Math.PI) angle += 2 * Math.PI;
+        while (angle > Math.PI) angle -= 2 * Math.PI;
+        return angle;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * @param i index of the component (0 to DIMENSIONS - 1)
+     * @return  value of the component
+     */
+    public float get(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param other other descriptor
+     * @return      Euclidean distance of the descriptors (0 for congruent shapes)
+     */
+    public double distance(ShapeDescriptor other) {
+        double sum = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            double d = values[i] - other.values[i];
+            sum += d * d;
+        }
+        return Math.sqrt(sum);
+    }
+}
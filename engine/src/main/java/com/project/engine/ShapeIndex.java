@@ -0,0 +1,194 @@
+package com.project.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the drawn figures grouped by congruence classes.
+ * Classes are hashed by their interned canonical shape (see {@link Figure#getKey()}), so adding or removing figure
+ * costs O(1) amortized and does not depend on the number of figures on the board or in its class.
+ * The index also interns the canonical geometry: every figure added to a class shares the {@link CanonicalShape}
+ * of the class instead of keeping its own vertices and key, so memory grows with the number of distinct shapes.
+ * Classes are also kept in the {@link SimilarityIndex} by their descriptors, so the most similar classes
+ * to a figure are found without comparing it with all of them.
+ */
+public class ShapeIndex {
+    /**
+     * Congruence class: all drawn figures, that are symmetrical to each other, and their shared color
+     */
+    public static class ShapeClass {
+        /**
+         * Identifier of the class, unique within the index
+         */
+        final int id;
+        /**
+         * Member figures, every member knows its position (see {@link Figure#memberIndex}),
+         * a removed member is replaced by the last one
+         */
+        final List<Figure> members = new ArrayList<>();
+        /**
+         * Color shared by all members (color of the first drawn member, ARGB)
+         */
+        int color;
+        /**
+         * Canonical geometry shared by all members
+         */
+        final CanonicalShape shape;
+
+        ShapeClass(int id, int color, CanonicalShape shape) {
+            this.id = id;
+            this.color = color;
+            this.shape = shape;
+        }
+
+        /**
+         * @return canonical geometry shared by all members
+         */
+        public CanonicalShape getShape() {
+            return shape;
+        }
+
+        /**
+         * @return identifier of the class
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return number of figures in the class
+         */
+        public int size() {
+            return members.size();
+        }
+
+        /**
+         * @return shared color of the class (ARGB)
+         */
+        public int getColor() {
+            return color;
+        }
+
+        /**
+         * @return member figures in no particular order (do not modify)
+         */
+        public List<Figure> getMembers() {
+            return members;
+        }
+    }
+
+    private final Map<CanonicalShape, ShapeClass> classes = new HashMap<>();
+    private final SimilarityIndex<ShapeClass> similarity = new SimilarityIndex<>();
+    /**
+     * Number of figures, that were symmetrical to some other figure (sum of class sizes minus one)
+     */
+    private int numberOfSymmetries = 0;
+    private int nextId = 0;
+
+    /**
+     * Adds finished figure to its congruence class. If the class already exists, the figure takes its
+     * shared color, otherwise a new class with the figure's color is created. Either way the figure starts
+     * sharing the canonical geometry of the class.
+     * @param figure    finished figure
+     * @return          class of the figure
+     */
+    public ShapeClass add(Figure figure) {
+        ShapeClass shapeClass = classes.get(figure.shape);
+        if (shapeClass == null) {
+            shapeClass = new ShapeClass(nextId++, figure.color, figure.shape);
+            classes.put(figure.shape, shapeClass);
+            similarity.add(shapeClass, figure.shape.getDescriptor());
+        } else {
+            figure.color = shapeClass.color;
+            numberOfSymmetries++;
+        }
+        figure.share(shapeClass.shape);
+        figure.memberIndex = shapeClass.members.size();
+        shapeClass.members.add(figure);
+        return shapeClass;
+    }
+
+    /**
+     * Removes figure from its congruence class in O(1), the class is deleted when it becomes empty.
+     * @param figure    figure to remove
+     * @return          true if the figure was in the index
+     */
+    public boolean remove(Figure figure) {
+        ShapeClass shapeClass = figure.shape == null ? null : classes.get(figure.shape);
+        if (shapeClass == null) {
+            return false;
+        }
+        List<Figure> members = shapeClass.members;
+        int index = figure.memberIndex;
+        if (index < 0 || index >= members.size() || members.get(index) != figure) {
+            return false;
+        }
+        // the last member takes the place of the removed one
+        Figure last = members.remove(members.size() - 1);
+        if (last != figure) {
+            members.set(index, last);
+            last.memberIndex = index;
+        }
+        figure.memberIndex = -1;
+        if (members.isEmpty()) {
+            classes.remove(shapeClass.shape);
+            similarity.remove(shapeClass);
+        } else {
+            numberOfSymmetries--;
+        }
+        return true;
+    }
+
+    /**
+     * Changes the shared color of the class and of all its members
+     * @param shapeClass    class in this index
+     * @param color         new color (ARGB)
+     */
+    public void recolor(ShapeClass shapeClass, int color) {
+        shapeClass.color = color;
+        for (Figure member : shapeClass.members) {
+            member.color = color;
+        }
+    }
+
+    /**
+     * @param figure    finished figure
+     * @return          class of the figure or null if there is no congruent figure in the index
+     */
+    public ShapeClass classOf(Figure figure) {
+        return figure.shape == null ? null : classes.get(figure.shape);
+    }
+
+    /**
+     * Finds the classes with the most similar shapes (see {@link ShapeDescriptor}), the class of the figure itself
+     * is not included
+     * @param figure    finished figure
+     * @param k         max number of classes
+     * @return          classes sorted by the distance of their descriptors (the most similar first)
+     */
+    public List<SimilarityIndex.Neighbor<ShapeClass>> similar(Figure figure, int k) {
+        ShapeClass own = classOf(figure);
+        List<SimilarityIndex.Neighbor<ShapeClass>> result = similarity.nearest(figure.shape.getDescriptor(), own == null ? k : k + 1);
+        if (own != null) {
+            result.removeIf(neighbor -> neighbor.getValue() == own);
+            if (result.size() > k) result.remove(k);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of figures, that are symmetrical to some previously drawn figure
+     */
+    public int getNumberOfSymmetries() {
+        return numberOfSymmetries;
+    }
+
+    /**
+     * @return number of distinct congruence classes
+     */
+    public int numberOfClasses() {
+        return classes.size();
+    }
+}
@@ -0,0 +1,263 @@
+package com.project.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Index of shape descriptors answering k nearest (most similar) shapes without comparing all of them.
+ * Descriptors are kept in balanced k-d trees of sizes 1, 2, 4, ... (logarithmic method): a new value is merged
+ * with the smaller trees into the first free level, so adding costs O(log^2 n) amortized and a query visits
+ * O(log n) trees. Removed values are only marked, all trees are rebuilt when the marked ones are the majority.
+ * The index is not thread safe.
+ * @param <T>   indexed value (e.g. congruence class), it is also the key for removing
+ */
+public class SimilarityIndex<T> {
+    /**
+     * Result of the query: indexed value and its distance from the query
+     */
+    public static final class Neighbor<T> {
+        final T value;
+        final double distance;
+
+        Neighbor(T value, double distance) {
+            this.value = value;
+            this.distance = distance;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return distance of the descriptors (see {@link ShapeDescriptor#distance(ShapeDescriptor)})
+         */
+        public double getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Implicit k-d tree: the median of the range is the node, that splits the range by the component
+     * with the biggest spread in the range (the components have very different spreads, e.g. high harmonics are small)
+     */
+    private static final class Tree<T> {
+        final Entry<T>[] entries;
+        /**
+         * Splitting component of the node on the same position
+         */
+        final byte[] dimensions;
+
+        Tree(Entry<T>[] entries) {
+            this.entries = entries;
+            this.dimensions = new byte[entries.length];
+        }
+    }
+
+    private static final class Entry<T> {
+        final ShapeDescriptor descriptor;
+        final T value;
+        boolean removed = false;
+
+        Entry(ShapeDescriptor descriptor, T value) {
+            this.descriptor = descriptor;
+            this.value = value;
+        }
+    }
+
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    /**
+     * Level i is null or a k-d tree with at most 2^i entries
+     */
+    private final List<Tree<T>> levels = new ArrayList<>();
+    private int removed = 0;
+
+    /**
+     * Adds value to the index, if the value is already there, its descriptor is replaced
+     * @param value         indexed value
+     * @param descriptor    its descriptor
+     */
+    public void add(T value, ShapeDescriptor descriptor) {
+        remove(value);
+        Entry<T> entry = new Entry<>(descriptor, value);
+        entries.put(value, entry);
+        List<Entry<T>> carry = new ArrayList<>();
+        carry.add(entry);
+        int level = 0;
+        while (level < levels.size() && levels.get(level) != null) {
+            collect(levels.get(level), carry);
+            levels.set(level, null);
+            level++;
+        }
+        place(carry, level);
+    }
+
+    /**
+     * Removes value from the index
+     * @param value indexed value
+     * @return      true if the value was in the index
+     */
+    public boolean remove(T value) {
+        Entry<T> entry = entries.remove(value);
+        if (entry == null) {
+            return false;
+        }
+        entry.removed = true;
+        removed++;
+        if (removed > entries.size()) {
+            rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * @return number of indexed values
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finds the k values with the closest descriptors
+     * @param query descriptor of the query shape
+     * @param k     max number of results
+     * @return      values sorted by distance (the closest first)
+     */
+    public List<Neighbor<T>> nearest(ShapeDescriptor query, int k) {
+        // the farthest of the best k is on top
+        PriorityQueue<Neighbor<T>> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b.distance, a.distance));
+        if (k > 0) {
+            for (Tree<T> tree : levels) {
+                if (tree != null) {
+                    search(tree, 0, tree.entries.length, query, k, best);
+                }
+            }
+        }
+        List<Neighbor<T>> result = new ArrayList<>(best);
+        result.sort((a, b) -> Double.compare(a.distance, b.distance));
+        return result;
+    }
+
+    private void search(Tree<T> tree, int from, int to, ShapeDescriptor query, int k, PriorityQueue<Neighbor<T>> best) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        Entry<T> node = tree.entries[middle];
+        if (!node.removed) {
+            double distance = node.descriptor.distance(query);
+            if (best.size() < k || distance < best.peek().distance) {
+                best.add(new Neighbor<>(node.value, distance));
+                if (best.size() > k) best.poll();
+            }
+        }
+        int dimension = tree.dimensions[middle];
+        double diff = query.get(dimension) - node.descriptor.get(dimension);
+        boolean leftFirst = diff < 0;
+        search(tree, leftFirst ? from : middle + 1, leftFirst ? middle : to, query, k, best);
+        // the other side could have a closer point only if the splitting plane is closer than the k-th best
+        if (best.size() < k || diff * diff < best.peek().distance * best.peek().distance) {
+            search(tree, leftFirst ? middle + 1 : from, leftFirst ? to : middle, query, k, best);
+        }
+    }
+
+    private void collect(Tree<T> tree, List<Entry<T>> carry) {
+        for (Entry<T> entry : tree.entries) {
+            if (entry.removed) {
+                removed--;
+            } else {
+                carry.add(entry);
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<Entry<T>> all = new ArrayList<>(entries.size());
+        for (int level = 0; level < levels.size(); level++) {
+            if (levels.get(level) != null) {
+                collect(levels.get(level), all);
+                levels.set(level, null);
+            }
+        }
+        if (!all.isEmpty()) {
+            place(all, 32 - Integer.numberOfLeadingZeros(all.size() - 1));
+        }
+    }
+
+    /**
+     * Builds the tree of the entries on the level (it has to be empty and big enough)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void place(List<Entry<T>> carry, int level) {
+        while (levels.size() <= level) {
+            levels.add(null);
+        }
+        Tree<T> tree = new Tree<>(carry.toArray(new Entry[0]));
+        build(tree, 0, tree.entries.length);
+        levels.set(level, tree);
+    }
+
+    /**
+     * Puts the median of the range by the component with the biggest spread in the middle, smaller left of it
+     */
+    private static <T> void build(Tree<T> tree, int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        float[] min = new float[ShapeDescriptor.DIMENSIONS], max = new float[ShapeDescriptor.DIMENSIONS];
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        Arrays.fill(max, Float.NEGATIVE_INFINITY);
+        for (int i = from; i < to; i++) {
+            for (int d = 0; d < ShapeDescriptor.DIMENSIONS; d++) {
+                float value = tree.entries[i].descriptor.get(d);
+                if (value < min[d]) min[d] = value;
+                if (value > max[d]) max[d] = value;
+            }
+        }
+        int dimension = 0;
+        for (int d = 1; d < ShapeDescriptor.DIMENSIONS; d++) {
+            if (max[d] - min[d] > max[dimension] - min[dimension]) dimension = d;
+        }
+        int middle = (from + to) >>> 1;
+        select(tree.entries, from, to - 1, middle, dimension);
+        tree.dimensions[middle] = (byte) dimension;
+        build(tree, from, middle);
+        build(tree, middle + 1, to);
+    }
+
+    /**
+     * Quickselect: moves the k-th smallest entry (by the component) of tree[lo..hi] to the position k
+     */
+    private static <T> void select(Entry<T>[] tree, int lo, int hi, int k, int dimension) {
+        while (lo < hi) {
+            float pivot = tree[(lo + hi) >>> 1].descriptor.get(dimension);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (tree[i].descriptor.get(dimension) < pivot) i++;
+                while (tree[j].descriptor.get(dimension) > pivot) j--;
+                if (i <= j) {
+                    Entry<T> t = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    @Override
+    public String toString() {
+        int[] sizes = new int[levels.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = levels.get(i) == null ? 0 : levels.get(i).entries.length;
+        }
+        return "SimilarityIndex" + Arrays.toString(sizes);
+    }
+}
@@ -0,0 +1,288 @@
+package com.project.engine;
+
+/**
+ * Symmetry group (stabilizer) of a figure: rotations and reflections of the square lattice (the group D4),
+ * that map the figure onto itself (after moving it back to the normal state).
+ * Transforms are numbered the same way as in the canonical key of {@link Figure}: bit 2 swaps the coordinates,
+ * then bit 1 negates y and bit 0 negates x. The group is kept as a bit mask of its transforms, it is immutable.
+ * Congruent figures have conjugate groups (same order, rotations and number of axes, but the axes could be turned),
+ * the group of the canonical shape is shared by the whole class (see {@link CanonicalShape#getSymmetryGroup()}).
+ */
+public final class SymmetryGroup {
+    public static final int IDENTITY = 0;
+    /**
+     * x -> -x, mirror axis is vertical
+     */
+    public static final int MIRROR_VERTICAL = 1;
+    /**
+     * y -> -y, mirror axis is horizontal
+     */
+    public static final int MIRROR_HORIZONTAL = 2;
+    public static final int ROTATE_180 = 3;
+    /**
+     * (y, x) -> (x, y), mirror axis is the main diagonal
+     */
+    public static final int MIRROR_DIAGONAL = 4;
+    /**
+     * (y, x) -> (x, -y)
+     */
+    public static final int ROTATE_270 = 5;
+    /**
+     * (y, x) -> (-x, y)
+     */
+    public static final int ROTATE_90 = 6;
+    /**
+     * (y, x) -> (-x, -y), mirror axis is the anti-diagonal
+     */
+    public static final int MIRROR_ANTIDIAGONAL = 7;
+
+    private static final int ROTATIONS = 1 << IDENTITY | 1 << ROTATE_90 | 1 << ROTATE_180 | 1 << ROTATE_270;
+    /**
+     * COMPOSE[a][b] is the transform a after b
+     */
+    private static final int[][] COMPOSE = new int[8][8];
+    private static final int[] INVERSE = new int[8];
+
+    static {
+        for (int a = 0; a < 8; a++) {
+            for (int b = 0; b < 8; b++) {
+                // a transform is given by the images of two independent vectors
+                int y1 = transformY(a, transformY(b, 1, 2), transformX(b, 1, 2));
+                int x1 = transformX(a, transformY(b, 1, 2), transformX(b, 1, 2));
+                for (int c = 0; c < 8; c++) {
+                    if (transformY(c, 1, 2) == y1 && transformX(c, 1, 2) == x1) {
+                        COMPOSE[a][b] = c;
+                        if (c == IDENTITY) INVERSE[a] = b;
+                    }
+                }
+            }
+        }
+    }
+
+    public static final SymmetryGroup TRIVIAL = new SymmetryGroup(1 << IDENTITY);
+
+    private final int mask;
+
+    private SymmetryGroup(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @param mask  bit mask of the transforms, it has to be a subgroup of D4 (contain identity and be closed)
+     * @return      group with the transforms
+     */
+    static SymmetryGroup of(int mask) {
+        return mask == TRIVIAL.mask ? TRIVIAL : new SymmetryGroup(mask);
+    }
+
+    /**
+     * Computes the group of the polygon directly: every transform is applied and compared with the polygon,
+     * O(8n). Vertices of a simple polygon are distinct, so it is enough to find the image of the first vertex
+     * and compare the rest in both directions.
+     * @param coords    packed vertices without the ones lying inside of horizontal or vertical edges
+     * @param n         number of vertices
+     * @return          symmetry group of the polygon
+     */
+    static SymmetryGroup of(int[] coords, int n) {
+        int minY = Integer.MAX_VALUE, minX = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minY = Math.min(minY, coords[2 * i]);
+            minX = Math.min(minX, coords[2 * i + 1]);
+        }
+        int mask = 1 << IDENTITY;
+        int[] image = new int[2 * n];
+        for (int t = 1; t < 8; t++) {
+            int imageMinY = Integer.MAX_VALUE, imageMinX = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                image[2 * i] = transformY(t, coords[2 * i], coords[2 * i + 1]);
+                image[2 * i + 1] = transformX(t, coords[2 * i], coords[2 * i + 1]);
+                imageMinY = Math.min(imageMinY, image[2 * i]);
+                imageMinX = Math.min(imageMinX, image[2 * i + 1]);
+            }
+            int dy = minY - imageMinY, dx = minX - imageMinX;
+            int start = -1;
+            for (int i = 0; i < n && start < 0; i++) {
+                if (image[2 * i] + dy == coords[0] && image[2 * i + 1] + dx == coords[1]) {
+                    start = i;
+                }
+            }
+            if (start >= 0 && (matches(coords, image, n, start, 1, dy, dx) || matches(coords, image, n, start, n - 1, dy, dx))) {
+                mask |= 1 << t;
+            }
+        }
+        return of(mask);
+    }
+
+    private static boolean matches(int[] coords, int[] image, int n, int start, int step, int dy, int dx) {
+        for (int i = 0, j = start; i < n; i++, j = (j + step) % n) {
+            if (image[2 * j] + dy != coords[2 * i] || image[2 * j + 1] + dx != coords[2 * i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param transform transform (0-7)
+     * @param y         y coordinate
+     * @param x         x coordinate
+     * @return          y coordinate of the transformed point
+     */
+    public static int transformY(int transform, int y, int x) {
+        int value = (transform & 4) != 0 ? x : y;
+        return (transform & 2) != 0 ? -value : value;
+    }
+
+    /**
+     * @param transform transform (0-7)
+     * @param y         y coordinate
+     * @param x         x coordinate
+     * @return          x coordinate of the transformed point
+     */
+    public static int transformX(int transform, int y, int x) {
+        int value = (transform & 4) != 0 ? y : x;
+        return (transform & 1) != 0 ? -value : value;
+    }
+
+    /**
+     * @param a transform applied second
+     * @param b transform applied first
+     * @return  transform a after b
+     */
+    public static int compose(int a, int b) {
+        return COMPOSE[a][b];
+    }
+
+    /**
+     * @param transform transform (0-7)
+     * @return          transform, that reverts it
+     */
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    /**
+     * @param mask  bit mask of some transforms
+     * @return      bit mask of the smallest group containing them
+     */
+    static int closure(int mask) {
+        mask |= 1 << IDENTITY;
+        int previous;
+        do {
+            previous = mask;
+            for (int a = 0; a < 8; a++) {
+                if ((previous & 1 << a) == 0) continue;
+                for (int b = 0; b < 8; b++) {
+                    if ((previous & 1 << b) != 0) mask |= 1 << COMPOSE[a][b];
+                }
+            }
+        } while (mask != previous);
+        return mask;
+    }
+
+    /**
+     * @param mask        bit mask of a group
+     * @param transforms  bit mask of some transforms
+     * @return            bit mask of all products t * g (t from transforms, g from the group)
+     */
+    static int cosets(int mask, int transforms) {
+        int result = 0;
+        for (int t = 0; t < 8; t++) {
+            if ((transforms & 1 << t) == 0) continue;
+            for (int g = 0; g < 8; g++) {
+                if ((mask & 1 << g) != 0) result |= 1 << COMPOSE[t][g];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param transform transform (0-7)
+     * @return          true if the transform maps the figure onto itself
+     */
+    public boolean contains(int transform) {
+        return (mask & 1 << transform) != 0;
+    }
+
+    /**
+     * @return bit mask of the transforms in the group
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * @return number of transforms in the group (1, 2, 4 or 8), the figure has 8 / order distinct images
+     */
+    public int order() {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * @return order of the rotational symmetry (1, 2 or 4)
+     */
+    public int rotationOrder() {
+        return Integer.bitCount(mask & ROTATIONS);
+    }
+
+    /**
+     * @return number of mirror axes (0, 1, 2 or 4)
+     */
+    public int mirrorAxes() {
+        return Integer.bitCount(mask & ~ROTATIONS);
+    }
+
+    /**
+     * @return name of the group: Cn for n-fold rotations only, Dn for n-fold rotations with n mirror axes
+     */
+    public String getName() {
+        return (mirrorAxes() > 0 ? "D" : "C") + rotationOrder();
+    }
+
+    /**
+     * Group of the transformed figure: if this is the group of F, the result is the group of transform(F)
+     * @param transform transform (0-7)
+     * @return          conjugate group transform * g * transform^-1
+     */
+    public SymmetryGroup conjugate(int transform) {
+        int result = 0;
+        for (int g = 0; g < 8; g++) {
+            if ((mask & 1 << g) != 0) {
+                result |= 1 << COMPOSE[COMPOSE[transform][g]][INVERSE[transform]];
+            }
+        }
+        return result == mask ? this : of(result);
+    }
+
+    /**
+     * One transform from each left coset t * G: transforms from the same coset give the same image of the figure,
+     * so only these have to be applied to get all its distinct images
+     * @return  8 / order transforms
+     */
+    public int[] cosetRepresentatives() {
+        int[] representatives = new int[8 / order()];
+        int covered = 0, count = 0;
+        for (int t = 0; t < 8; t++) {
+            if ((covered & 1 << t) == 0) {
+                representatives[count++] = t;
+                covered |= cosets(mask, 1 << t);
+            }
+        }
+        return representatives;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SymmetryGroup other && other.mask == mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + " (order " + order() + ", rotations " + rotationOrder() + ", axes " + mirrorAxes() + ")";
+    }
+}
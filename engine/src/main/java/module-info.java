@@ -0,0 +1,6 @@
+module com.project.engine {
+    requires transitive jdk.jfr;
+    requires jdk.httpserver;
+
+    exports com.project.engine;
+}
@@ -0,0 +1,199 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.project.engine.FigureTest.coordsOf;
+import static com.project.engine.FigureTest.moved;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ClassificationServerTest {
+    private ClassificationServer server;
+    private int port;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new ClassificationServer(-1);
+        port = server.start(0);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + path).toURL().openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static List<String> lines(HttpURLConnection connection) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return answer lines of the batch
+     */
+    private List<String> classify(String batch) throws IOException {
+        HttpURLConnection connection = open("/classify", "POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(batch.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(200, connection.getResponseCode());
+        return lines(connection);
+    }
+
+    private String stats() throws IOException {
+        HttpURLConnection connection = open("/stats", "GET");
+        assertEquals(200, connection.getResponseCode());
+        return lines(connection).get(0);
+    }
+
+    private static String format(int[] coords) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < coords.length; i += 2) {
+            if (i > 0) sb.append(' ');
+            sb.append(coords[i]).append(',').append(coords[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void mixedBatch() throws IOException {
+        List<String> answers = classify("""
+                # squares and triangles
+                0,0 0,2 2,2 2,0
+
+                5,5 5,7 7,7 7,5
+                0,0 2,2 0,2 2,0
+                1,1 1,2
+                3,0 3,1 5,0
+                  # indented comment
+                10,10 8,10 10,9
+                """);
+        assertEquals(9, answers.size());
+        assertEquals("", answers.get(0));
+        assertEquals("", answers.get(2));
+        assertEquals("", answers.get(7));
+        // bow tie and too few vertices
+        assertEquals("invalid", answers.get(4));
+        assertEquals("invalid", answers.get(5));
+
+        String[] square = answers.get(1).split("\t"), square2 = answers.get(3).split("\t");
+        String[] triangle = answers.get(6).split("\t"), triangle2 = answers.get(8).split("\t");
+        assertEquals(square[0], square2[0]);
+        assertEquals(triangle[0], triangle2[0]);
+        assertNotEquals(square[0], triangle[0]);
+        assertEquals("1", square[1]);
+        assertEquals("2", square2[1]);
+        assertEquals("1", triangle[1]);
+        assertEquals("2", triangle2[1]);
+        assertEquals(4.0, Double.parseDouble(square[2]));
+        assertEquals(1.0, Double.parseDouble(triangle2[2]));
+        // the key is the same for the class and it is a polygon congruent with the input
+        assertEquals(square[3], square2[3]);
+        assertEquals(triangle[3], triangle2[3]);
+        BatchClassifier parser = new BatchClassifier(-1);
+        Figure key = parser.parse(triangle[3]);
+        assertNotNull(key);
+        assertEquals(parser.parse("3,0 3,1 5,0"), key);
+
+        assertEquals("6\t2\t2", stats());
+        assertEquals(2, server.numberOfClasses());
+    }
+
+    @Test
+    void wrongMethodsAreRejected() throws IOException {
+        HttpURLConnection get = open("/classify", "GET");
+        assertEquals(405, get.getResponseCode());
+        assertEquals("POST", get.getHeaderField("Allow"));
+        HttpURLConnection post = open("/stats", "POST");
+        assertEquals(405, post.getResponseCode());
+        assertEquals("GET", post.getHeaderField("Allow"));
+        assertEquals("0\t0\t0", stats());
+    }
+
+    @Test
+    void idsAreStableAcrossConcurrentRequests() throws Exception {
+        // every shape twice, moved, rotated and started at another vertex
+        List<Figure> shapes = new ArrayList<>(new PolygonEnumerator(2, 4).enumerate());
+        Random random = new Random(10);
+        StringBuilder batch = new StringBuilder();
+        List<Integer> shapeOfLine = new ArrayList<>();
+        for (int copy = 0; copy < 2; copy++) {
+            for (int s = 0; s < shapes.size(); s++) {
+                int n = shapes.get(s).number_of_vertices();
+                batch.append(format(moved(coordsOf(shapes.get(s)), n, random.nextInt(8), random.nextInt(20),
+                        random.nextInt(20), random.nextInt(n), random.nextBoolean()))).append('\n');
+                shapeOfLine.add(s);
+            }
+        }
+        int clients = 16;
+        List<List<String>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(clients)) {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> classify(batch.toString())));
+            }
+            for (Future<List<String>> future : futures) {
+                results.add(future.get());
+            }
+        }
+        // all clients see the same id for the shape, different shapes have different ids
+        Map<Integer, String> idOfShape = new HashMap<>();
+        Map<Integer, Set<Long>> countsOfShape = new HashMap<>();
+        for (List<String> answers : results) {
+            assertEquals(shapeOfLine.size(), answers.size());
+            for (int line = 0; line < answers.size(); line++) {
+                String[] answer = answers.get(line).split("\t");
+                assertEquals(idOfShape.computeIfAbsent(shapeOfLine.get(line), s -> answer[0]), answer[0]);
+                countsOfShape.computeIfAbsent(shapeOfLine.get(line), s -> new TreeSet<>()).add(Long.parseLong(answer[1]));
+            }
+        }
+        assertEquals(shapes.size(), idOfShape.values().stream().distinct().count());
+        // every polygon got its own count, none was answered twice
+        Set<Long> expectedCounts = new TreeSet<>();
+        for (long count = 1; count <= 2 * clients; count++) {
+            expectedCounts.add(count);
+        }
+        for (Set<Long> counts : countsOfShape.values()) {
+            assertEquals(expectedCounts, counts);
+        }
+        assertEquals(clients * shapeOfLine.size() + "\t0\t" + shapes.size(), stats());
+
+        // every polygon of all clients was counted
+        String[] next = classify(batch.substring(0, batch.indexOf("\n") + 1)).get(0).split("\t");
+        assertEquals(idOfShape.get(0), next[0]);
+        assertEquals(String.valueOf(2 * clients + 1), next[1]);
+    }
+}
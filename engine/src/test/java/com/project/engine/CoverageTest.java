@@ -0,0 +1,148 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoverageTest {
+    /**
+     * Even-odd test of the cell centre (y + 1/2, x + 1/2): counts the edges crossing its row at or left of the centre
+     */
+    static boolean inside(Figure figure, int y, int x) {
+        int n = figure.number_of_vertices();
+        boolean inside = false;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            long y1 = figure.getY(i), x1 = figure.getX(i), y2 = figure.getY(j), x2 = figure.getX(j);
+            if (y1 == y2 || 2 * y + 1 < 2 * Math.min(y1, y2) || 2 * y + 1 > 2 * Math.max(y1, y2)) {
+                continue;
+            }
+            // crossing x = x1 + (y + 1/2 - y1) * (x2 - x1) / (y2 - y1), compared with x + 1/2, everything doubled
+            long dy = y2 - y1;
+            long crossing = 2 * x1 * dy + (2 * y + 1 - 2 * y1) * (x2 - x1);
+            long centre = (2L * x + 1) * dy;
+            if (dy > 0 ? crossing <= centre : crossing >= centre) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Random simple polygon with the vertices in the square of the given size, possibly across chunk borders
+     */
+    private static Figure randomFigure(Random random, int y, int x, int size) {
+        while (true) {
+            int n = 3 + random.nextInt(6);
+            int[] coords = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                coords[2 * i] = y + random.nextInt(size);
+                coords[2 * i + 1] = x + random.nextInt(size);
+            }
+            if (Geometry.isSimple(coords, n)) {
+                return new Figure(coords, n);
+            }
+        }
+    }
+
+    /**
+     * Compares all counters with the brute force over the cells around the figures
+     */
+    private static void assertMatches(Coverage coverage, List<Figure> figures, int min, int max) {
+        long covered = 0, overlap = 0, total = 0;
+        for (int y = min; y < max; y++) {
+            for (int x = min; x < max; x++) {
+                int count = 0;
+                for (Figure figure : figures) {
+                    if (inside(figure, y, x)) count++;
+                }
+                assertEquals(count, coverage.coverage(y, x), "cell " + y + " " + x);
+                if (count > 0) covered++;
+                if (count > 1) overlap++;
+                total += count;
+            }
+        }
+        assertEquals(covered, coverage.getCoveredArea());
+        assertEquals(overlap, coverage.getOverlapArea());
+        assertEquals(total, coverage.getTotalArea());
+    }
+
+    @Test
+    void countersMatchBruteForce() {
+        Random random = new Random(6);
+        Coverage coverage = new Coverage();
+        List<Figure> figures = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            if (figures.isEmpty() || random.nextInt(3) > 0) {
+                Figure figure = randomFigure(random, random.nextInt(40) - 20, random.nextInt(40) - 20, 2 + random.nextInt(20));
+                coverage.add(figure);
+                figures.add(figure);
+            } else {
+                coverage.remove(figures.remove(random.nextInt(figures.size())));
+            }
+            if (step % 30 == 0) {
+                assertMatches(coverage, figures, -22, 42);
+            }
+        }
+        assertMatches(coverage, figures, -22, 42);
+        for (Figure figure : figures) {
+            coverage.remove(figure);
+        }
+        assertMatches(coverage, List.of(), -22, 42);
+    }
+
+    @Test
+    void axisAlignedFigureCoversItsArea() {
+        Coverage coverage = new Coverage();
+        // L shape of area 12 across the chunk corner
+        int[] coords = {-2, -2, -2, 2, 0, 2, 0, 0, 2, 0, 2, -2};
+        coverage.add(new Figure(coords, 6));
+        assertEquals(12, coverage.getCoveredArea());
+        assertEquals(Math.abs(Geometry.doubledArea(coords, 6)) / 2, coverage.getCoveredArea());
+        assertEquals(1, coverage.coverage(-1, 1));
+        assertEquals(0, coverage.coverage(1, 1));
+    }
+
+    @Test
+    void neighboursSharingDiagonalDoNotOverlap() {
+        Coverage coverage = new Coverage();
+        coverage.add(new Figure(new int[]{0, 0, 0, 4, 4, 4}, 3));
+        coverage.add(new Figure(new int[]{0, 0, 4, 4, 4, 0}, 3));
+        assertEquals(16, coverage.getCoveredArea());
+        assertEquals(0, coverage.getOverlapArea());
+        assertEquals(16, coverage.getTotalArea());
+    }
+
+    @Test
+    void countsAboveCharAreKept() {
+        Coverage coverage = new Coverage();
+        Figure square = new Figure(new int[]{0, 0, 0, 1, 1, 1, 1, 0}, 4);
+        int copies = Character.MAX_VALUE + 10;
+        for (int i = 0; i < copies; i++) {
+            coverage.add(square);
+        }
+        assertEquals(copies, coverage.coverage(0, 0));
+        assertEquals(1, coverage.getCoveredArea());
+        assertEquals(1, coverage.getOverlapArea());
+        assertEquals(copies, coverage.getTotalArea());
+        for (int i = 0; i < copies; i++) {
+            coverage.remove(square);
+        }
+        assertEquals(0, coverage.coverage(0, 0));
+        assertEquals(0, coverage.getCoveredArea());
+        assertEquals(0, coverage.getOverlapArea());
+        assertEquals(0, coverage.getTotalArea());
+    }
+
+    @Test
+    void removingUnknownFigureFails() {
+        Coverage coverage = new Coverage();
+        assertThrows(IllegalStateException.class,
+                () -> coverage.remove(new Figure(new int[]{0, 0, 0, 1, 1, 1, 1, 0}, 4)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Canonical key has to give the same congruence as the reference {@link Figure#getAllSymmetries()}
+ */
+class FigureTest {
+    /**
+     * @return the polygon rotated or reflected (D4 transform: bit 4 swaps the axes, 2 negates y, 1 negates x),
+     * moved, started at another vertex and maybe traversed in the opposite direction
+     */
+    static int[] moved(int[] coords, int n, int transform, int dy, int dx, int start, boolean reversed) {
+        int[] result = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            int j = reversed ? Math.floorMod(start - i, n) : (start + i) % n;
+            int y = (transform & 4) != 0 ? coords[2 * j + 1] : coords[2 * j];
+            int x = (transform & 4) != 0 ? coords[2 * j] : coords[2 * j + 1];
+            result[2 * i] = ((transform & 2) != 0 ? -y : y) + dy;
+            result[2 * i + 1] = ((transform & 1) != 0 ? -x : x) + dx;
+        }
+        return result;
+    }
+
+    static int[] coordsOf(Figure figure) {
+        int n = figure.number_of_vertices();
+        int[] coords = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            coords[2 * i] = figure.getY(i);
+            coords[2 * i + 1] = figure.getX(i);
+        }
+        return coords;
+    }
+
+    /**
+     * @return random polygon on the lattice of the given size: distinct vertices, no three consecutive ones
+     * on a line (such vertices are thrown away by both the key and the reference)
+     */
+    static Figure randomPolygon(Random random, int size, int maxVertices) {
+        while (true) {
+            int n = 3 + random.nextInt(maxVertices - 2);
+            int[] coords = new int[2 * n];
+            boolean valid = true;
+            for (int i = 0; i < n && valid; i++) {
+                coords[2 * i] = random.nextInt(size + 1);
+                coords[2 * i + 1] = random.nextInt(size + 1);
+                for (int j = 0; j < i; j++) {
+                    if (coords[2 * j] == coords[2 * i] && coords[2 * j + 1] == coords[2 * i + 1]) valid = false;
+                }
+            }
+            for (int i = 0; i < n && valid; i++) {
+                int a = i, b = (i + 1) % n, c = (i + 2) % n;
+                valid = (coords[2 * b] - coords[2 * a]) * (coords[2 * c + 1] - coords[2 * a + 1])
+                        != (coords[2 * b + 1] - coords[2 * a + 1]) * (coords[2 * c] - coords[2 * a]);
+            }
+            if (valid) {
+                return new Figure(coords, n);
+            }
+        }
+    }
+
+    @Test
+    void movedCopiesHaveTheSameKey() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 2000; trial++) {
+            Figure shape = randomPolygon(random, 3, 6);
+            int n = shape.number_of_vertices();
+            int[] coords = coordsOf(shape);
+            for (int transform = 0; transform < 8; transform++) {
+                int[] copy = moved(coords, n, transform, random.nextInt(41) - 20, random.nextInt(41) - 20,
+                        random.nextInt(n), random.nextBoolean());
+                Figure figure = new Figure(copy, n);
+                assertTrue(Arrays.equals(shape.getKey(), figure.getKey()), () -> Arrays.toString(copy));
+                assertEquals(shape, figure);
+                assertEquals(shape.getAllSymmetries(), figure.getAllSymmetries());
+            }
+        }
+    }
+
+    @Test
+    void keyEqualityMatchesAllSymmetries() {
+        // pairs of (possibly) congruent polygons: random small polygons and their random images
+        List<Figure> figures = new ArrayList<>();
+        Random random = new Random(2);
+        for (int i = 0; i < 150; i++) {
+            Figure shape = randomPolygon(random, 2, 5);
+            figures.add(shape);
+            int n = shape.number_of_vertices();
+            figures.add(new Figure(moved(coordsOf(shape), n, random.nextInt(8), 3, -7, random.nextInt(n), random.nextBoolean()), n));
+        }
+        for (Figure a : figures) {
+            assertNotNull(a.getKey());
+            for (Figure b : figures) {
+                boolean sameKey = Arrays.equals(a.getKey(), b.getKey());
+                boolean sameSymmetries = a.getAllSymmetries().equals(b.getAllSymmetries());
+                assertEquals(sameSymmetries, sameKey, () -> a + " " + b);
+                assertEquals(sameKey, a.equals(b));
+                if (sameKey) {
+                    assertEquals(a.hashCode(), b.hashCode());
+                }
+            }
+        }
+    }
+
+    @Test
+    void uselessVerticesDoNotChangeTheKey() {
+        // the same rectangle with extra vertices in the middle of its edges
+        Figure plain = new Figure(new int[]{0, 0, 0, 3, 2, 3, 2, 0}, 4);
+        Figure extra = new Figure(new int[]{5, 5, 5, 6, 5, 8, 7, 8, 7, 5, 6, 5}, 6);
+        assertTrue(Arrays.equals(plain.getKey(), extra.getKey()));
+    }
+}
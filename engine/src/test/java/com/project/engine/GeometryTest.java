@@ -0,0 +1,110 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeometryTest {
+    static long cross(int ay, int ax, int by, int bx, int cy, int cx) {
+        return (long) (by - ay) * (cx - ax) - (long) (bx - ax) * (cy - ay);
+    }
+
+    private static boolean between(int a, int b, int p) {
+        return Math.min(a, b) <= p && p <= Math.max(a, b);
+    }
+
+    /**
+     * @return true if the closed segments have a common point
+     */
+    private static boolean touch(int[] c, int a, int b, int d, int e) {
+        long d1 = cross(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], c[2 * d], c[2 * d + 1]);
+        long d2 = cross(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], c[2 * e], c[2 * e + 1]);
+        long d3 = cross(c[2 * d], c[2 * d + 1], c[2 * e], c[2 * e + 1], c[2 * a], c[2 * a + 1]);
+        long d4 = cross(c[2 * d], c[2 * d + 1], c[2 * e], c[2 * e + 1], c[2 * b], c[2 * b + 1]);
+        if (Long.signum(d1) * Long.signum(d2) < 0 && Long.signum(d3) * Long.signum(d4) < 0) {
+            return true;
+        }
+        return (d1 == 0 && between(c[2 * a], c[2 * b], c[2 * d]) && between(c[2 * a + 1], c[2 * b + 1], c[2 * d + 1]))
+                || (d2 == 0 && between(c[2 * a], c[2 * b], c[2 * e]) && between(c[2 * a + 1], c[2 * b + 1], c[2 * e + 1]))
+                || (d3 == 0 && between(c[2 * d], c[2 * e], c[2 * a]) && between(c[2 * d + 1], c[2 * e + 1], c[2 * a + 1]))
+                || (d4 == 0 && between(c[2 * d], c[2 * e], c[2 * b]) && between(c[2 * d + 1], c[2 * e + 1], c[2 * b + 1]));
+    }
+
+    /**
+     * Tests every pair of edges: the neighbouring ones must not go back over each other, the others must not touch
+     */
+    static boolean bruteForceSimple(int[] c, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (c[2 * i] == c[2 * j] && c[2 * i + 1] == c[2 * j + 1]) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            // edge i goes from vertex i to i + 1, the next edge turns back if it is collinear and heads backwards
+            int a = i, b = (i + 1) % n, d = (i + 2) % n;
+            if (cross(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], c[2 * d], c[2 * d + 1]) == 0
+                    && (long) (c[2 * a] - c[2 * b]) * (c[2 * d] - c[2 * b])
+                    + (long) (c[2 * a + 1] - c[2 * b + 1]) * (c[2 * d + 1] - c[2 * b + 1]) > 0) {
+                return false;
+            }
+            for (int j = i + 2; j < n; j++) {
+                if (i == 0 && j == n - 1) {
+                    continue;
+                }
+                if (touch(c, i, (i + 1) % n, j, (j + 1) % n)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void isSimpleMatchesBruteForce() {
+        Random random = new Random(4);
+        int simple = 0;
+        for (int trial = 0; trial < 200_000; trial++) {
+            int n = 3 + random.nextInt(7);
+            int range = 2 + random.nextInt(5);
+            int[] coords = new int[2 * n];
+            for (int i = 0; i < 2 * n; i++) {
+                coords[i] = random.nextInt(range);
+            }
+            boolean expected = bruteForceSimple(coords, n);
+            assertEquals(expected, Geometry.isSimple(coords, n), () -> Arrays.toString(coords));
+            if (expected) simple++;
+        }
+        // both answers have to be tested
+        assertTrue(simple > 1000);
+    }
+
+    @Test
+    void degenerateCases() {
+        // all vertices on one line
+        assertFalse(Geometry.isSimple(new int[]{0, 0, 0, 1, 0, 2}, 3));
+        // vertex in the middle of the straight edge is fine
+        assertTrue(Geometry.isSimple(new int[]{0, 0, 0, 1, 0, 2, 2, 2, 2, 0}, 5));
+        // bow tie
+        assertFalse(Geometry.isSimple(new int[]{0, 0, 2, 2, 0, 2, 2, 0}, 4));
+        // vertex touching another edge
+        assertFalse(Geometry.isSimple(new int[]{0, 0, 0, 4, 4, 4, 0, 2, 4, 0}, 5));
+        assertFalse(Geometry.isSimple(new int[]{0, 0, 1, 1}, 2));
+    }
+
+    @Test
+    void areaAndLatticePoints() {
+        // 3 x 2 rectangle: doubled area 12, 10 boundary points, 2 interior points (Pick's theorem)
+        int[] rectangle = {0, 0, 0, 3, 2, 3, 2, 0};
+        assertEquals(12, Math.abs(Geometry.doubledArea(rectangle, 4)));
+        assertEquals(10, Geometry.boundaryPoints(rectangle, 4));
+        assertEquals(2, Geometry.interiorPoints(rectangle, 4));
+        assertEquals(10, Geometry.perimeter(rectangle, 4), 1e-9);
+    }
+}
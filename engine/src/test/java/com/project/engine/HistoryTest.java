@@ -0,0 +1,94 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.project.engine.SessionStoreTest.draw;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryTest {
+    /**
+     * @return everything undo has to restore: figures with colors, classes and covered cells
+     */
+    private static List<Object> snapshot(GameState state) {
+        List<Object> result = new ArrayList<>();
+        for (Figure figure : state.getFigures()) {
+            result.add(figure.getSequence() + " " + figure.getColor() + " " + figure);
+        }
+        result.add(state.getShapeIndex().numberOfClasses());
+        result.add(state.getShapeIndex().getNumberOfSymmetries());
+        result.add(state.getBoard().getCoverage().getCoveredArea());
+        result.add(state.getBoard().getCoverage().getOverlapArea());
+        return result;
+    }
+
+    @Test
+    void undoAndRedoEveryCommand() {
+        GameState state = new GameState();
+        List<List<Object>> states = new ArrayList<>();
+        states.add(snapshot(state));
+        Figure square = draw(state, 1, 0, 0, 0, 2, 2, 2, 2, 0);
+        assertNotNull(square);
+        states.add(snapshot(state));
+        Figure copy = draw(state, 2, 1, 1, 1, 3, 3, 3, 3, 1);
+        // congruent figure takes the color of its class
+        assertEquals(1, copy.getColor());
+        states.add(snapshot(state));
+        draw(state, 3, 10, 0, 10, 1, 12, 0);
+        states.add(snapshot(state));
+        state.recolor(copy, 7);
+        assertEquals(7, square.getColor());
+        states.add(snapshot(state));
+        state.delete(square);
+        states.add(snapshot(state));
+
+        for (int i = states.size() - 2; i >= 0; i--) {
+            assertFalse(state.undo().isEmpty());
+            assertEquals(states.get(i), snapshot(state), "undo to state " + i);
+        }
+        assertTrue(state.undo().isEmpty());
+        for (int i = 1; i < states.size(); i++) {
+            assertFalse(state.redo().isEmpty());
+            assertEquals(states.get(i), snapshot(state), "redo to state " + i);
+        }
+        assertTrue(state.redo().isEmpty());
+    }
+
+    @Test
+    void newCommandForgetsRedo() {
+        GameState state = new GameState();
+        draw(state, 1, 0, 0, 0, 2, 2, 2, 2, 0);
+        draw(state, 2, 5, 5, 5, 6, 7, 5);
+        state.undo();
+        List<Object> before = snapshot(state);
+        draw(state, 3, 20, 0, 20, 4, 21, 4, 21, 0);
+        assertTrue(state.redo().isEmpty());
+        state.undo();
+        assertEquals(before, snapshot(state));
+    }
+
+    @Test
+    void undoReportsAffectedFigures() {
+        GameState state = new GameState();
+        Figure a = draw(state, 1, 0, 0, 0, 2, 2, 2, 2, 0);
+        Figure b = draw(state, 2, 4, 0, 4, 2, 6, 2, 6, 0);
+        state.recolor(a, 9);
+        // recoloring changes the whole class
+        List<Figure> affected = state.undo();
+        assertEquals(2, affected.size());
+        assertEquals(1, b.getColor());
+        List<Figure> removed = state.undo();
+        assertEquals(1, removed.size());
+        assertSame(b, removed.get(0));
+        assertNull(state.getFigure(b.getSequence()));
+        state.redo();
+        assertSame(b, state.getFigure(b.getSequence()));
+    }
+}
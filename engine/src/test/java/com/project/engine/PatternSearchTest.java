@@ -0,0 +1,148 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.project.engine.CoverageTest.inside;
+import static com.project.engine.FigureTest.coordsOf;
+import static com.project.engine.FigureTest.moved;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatternSearchTest {
+    /**
+     * @return undirected edges of the polygon, two placements are the same polygon if they have the same edges
+     * (comparing the covered cells is not enough, different orientations can cover the same cells)
+     */
+    private static Set<List<Integer>> edges(Figure figure) {
+        int n = figure.number_of_vertices();
+        Set<List<Integer>> edges = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            int y1 = figure.getY(i), x1 = figure.getX(i), y2 = figure.getY(j), x2 = figure.getX(j);
+            boolean ordered = y1 < y2 || y1 == y2 && x1 < x2;
+            edges.add(ordered ? List.of(y1, x1, y2, x2) : List.of(y2, x2, y1, x1));
+        }
+        return edges;
+    }
+
+    /**
+     * Tries all 8 transforms on every position, where the vertices are inside of the region,
+     * and tests every cell centre of the placement
+     */
+    private static Set<Set<List<Integer>>> bruteForcePlacements(Coverage coverage, Figure shape,
+                                                                int minY, int minX, int maxY, int maxX) {
+        Set<Set<List<Integer>>> result = new HashSet<>();
+        int n = shape.number_of_vertices();
+        for (int t = 0; t < 8; t++) {
+            Figure oriented = new Figure(moved(coordsOf(shape), n, t, 0, 0, 0, false), n);
+            for (int dy = minY - oriented.getMinY(); dy + oriented.getMaxY() <= maxY; dy++) {
+                for (int dx = minX - oriented.getMinX(); dx + oriented.getMaxX() <= maxX; dx++) {
+                    Figure placed = new Figure(moved(coordsOf(shape), n, t, dy, dx, 0, false), n);
+                    boolean free = true;
+                    for (int y = placed.getMinY(); y < placed.getMaxY() && free; y++) {
+                        for (int x = placed.getMinX(); x < placed.getMaxX() && free; x++) {
+                            free = !inside(placed, y, x) || coverage.coverage(y, x) == 0;
+                        }
+                    }
+                    if (free) {
+                        result.add(edges(placed));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void freePlacementsMatchBruteForce() {
+        Random random = new Random(8);
+        Coverage coverage = new Coverage();
+        // a few obstacles, some of them across the region border
+        int[][] obstacles = {
+                {0, 0, 0, 3, 2, 0},
+                {4, 4, 4, 6, 6, 6, 6, 4},
+                {-2, 7, 3, 9, 1, 12},
+                {8, -1, 11, 2, 11, -1},
+                {5, 9, 9, 11, 9, 9},
+        };
+        for (int[] obstacle : obstacles) {
+            coverage.add(new Figure(obstacle, obstacle.length / 2));
+        }
+        int checked = 0;
+        for (Figure shape : new PolygonEnumerator(3, 4).enumerate()) {
+            int minY = random.nextInt(3) - 1, minX = random.nextInt(3) - 1;
+            PatternSearch.Placements placements = PatternSearch.freePlacements(coverage, shape, minY, minX, 11, 11);
+            Set<Set<List<Integer>>> found = new HashSet<>();
+            for (int i = 0; i < placements.size(); i++) {
+                Figure placed = placements.get(i, 0);
+                assertEquals(shape, placed);
+                found.add(edges(placed));
+            }
+            // every placement is found once
+            assertEquals(placements.size(), found.size(), shape::toString);
+            assertEquals(bruteForcePlacements(coverage, shape, minY, minX, 11, 11), found, shape::toString);
+            checked += placements.size();
+        }
+        assertTrue(checked > 100);
+    }
+
+    @Test
+    void emptyRegionHasNoPlacements() {
+        Figure square = new Figure(new int[]{0, 0, 0, 2, 2, 2, 2, 0}, 4);
+        Coverage coverage = new Coverage();
+        assertEquals(0, PatternSearch.freePlacements(coverage, square, 0, 0, 1, 5).size());
+        assertEquals(0, PatternSearch.freePlacements(coverage, square, 5, 5, 5, 5).size());
+        // the square fits exactly once, all its orientations are the same
+        assertEquals(1, PatternSearch.freePlacements(coverage, square, 0, 0, 2, 2).size());
+    }
+
+    @Test
+    void nearestPlacementIsTheClosestCentre() {
+        Figure square = new Figure(new int[]{0, 0, 0, 2, 2, 2, 2, 0}, 4);
+        PatternSearch.Placements placements = PatternSearch.freePlacements(new Coverage(), square, 0, 0, 10, 10);
+        assertEquals(81, placements.size());
+        Figure nearest = placements.get(placements.nearest(6.2, 3.9), 0);
+        assertEquals(5, nearest.getMinY());
+        assertEquals(3, nearest.getMinX());
+    }
+
+    @Test
+    void copiesAreTheCongruentFigures() {
+        GameState state = new GameState();
+        Random random = new Random(9);
+        List<Figure> shapes = new ArrayList<>(new PolygonEnumerator(2, 4).enumerate());
+        for (int i = 0; i < 60; i++) {
+            Figure shape = shapes.get(random.nextInt(shapes.size()));
+            int n = shape.number_of_vertices();
+            int[] copy = moved(coordsOf(shape), n, random.nextInt(8), 4 * (i / 8), 4 * (i % 8), random.nextInt(n), random.nextBoolean());
+            SessionStoreTest.draw(state, 1, copy);
+        }
+        assertEquals(60, state.getFigures().size());
+        for (Figure shape : shapes) {
+            // the query is a moved copy, that is not on the board
+            int n = shape.number_of_vertices();
+            Figure query = new Figure(moved(coordsOf(shape), n, random.nextInt(8), 100, 100, 0, false), n);
+            Set<Figure> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Figure figure : state.getFigures()) {
+                if (figure.getAllSymmetries().equals(query.getAllSymmetries())) {
+                    expected.add(figure);
+                }
+            }
+            List<Figure> copies = PatternSearch.copies(state.getShapeIndex(), query);
+            Set<Figure> found = Collections.newSetFromMap(new IdentityHashMap<>());
+            found.addAll(copies);
+            assertEquals(copies.size(), found.size());
+            assertEquals(expected, found, shape::toString);
+        }
+        assertTrue(PatternSearch.copies(state.getShapeIndex(),
+                new Figure(new int[]{0, 0, 0, 7, 1, 7, 1, 0}, 4)).isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingFiguresTest {
+    /**
+     * Owner's thread of the state, as the FX thread in the game
+     */
+    private final ExecutorService owner = Executors.newSingleThreadExecutor();
+    private final GameState state = new GameState();
+
+    @AfterEach
+    void shutdown() {
+        owner.shutdown();
+    }
+
+    private <T> T onOwner(Callable<T> task) throws Exception {
+        return owner.submit(task).get();
+    }
+
+    /**
+     * Clicks all vertices and takes the figure from the drawing, as the closing click of the game does
+     */
+    private Figure drawOpen(int color, int... coords) {
+        for (int i = 0; i < coords.length; i += 2) {
+            state.click(coords[i], coords[i + 1], color);
+        }
+        assertTrue(state.isClosingClick(coords[0], coords[1]));
+        return state.cancelDrawing();
+    }
+
+    /**
+     * Figures of all kinds, a few of them congruent
+     */
+    private List<Figure> drawMany(PendingFigures pending, int count) {
+        List<Figure> figures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int y = 4 * i;
+            Figure figure = switch (i % 3) {
+                case 0 -> drawOpen(0xff0000ff, y, 0, y, 2, y + 2, 2, y + 2, 0);
+                case 1 -> drawOpen(0xff00ff00, y, 10, y + 1, 13, y + 3, 10);
+                default -> drawOpen(0xffff0000, y, 20, y, 23, y + 1, 23, y + 1, 21, y + 3, 21, y + 3, 20);
+            };
+            pending.add(figure);
+            figures.add(figure);
+        }
+        return figures;
+    }
+
+    @Test
+    void closedFiguresEndUpOnTheBoardInOrder() throws Exception {
+        int count = 60;
+        CountDownLatch done = new CountDownLatch(count + 1);
+        List<Figure> classified = new ArrayList<>();
+        PendingFigures pending = new PendingFigures(state, owner, new PendingFigures.Listener() {
+            @Override
+            public void classified(Figure figure, boolean closed) {
+                classified.add(figure);
+                done.countDown();
+            }
+
+            @Override
+            public void failed(Figure figure, Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+        Figure[] bowTie = new Figure[1];
+        List<Figure> figures = onOwner(() -> {
+            List<Figure> drawn = drawMany(pending, count);
+            // the figure crossing itself goes back to drawing
+            bowTie[0] = drawOpen(0xffffff00, 500, 0, 502, 2, 500, 2, 502, 0);
+            pending.add(bowTie[0]);
+            assertEquals(count + 1, pending.getFigures().size());
+            return drawn;
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        onOwner(() -> {
+            assertTrue(pending.getFigures().isEmpty());
+            assertEquals(count + 1, classified.size());
+            List<Figure> board = new ArrayList<>(state.getFigures());
+            assertEquals(count, board.size());
+            for (int i = 0; i < count; i++) {
+                assertSame(figures.get(i), board.get(i));
+                assertSame(figures.get(i), classified.get(i));
+                assertEquals(i, figures.get(i).getSequence());
+            }
+            // squares, triangles and the hexagons share their classes
+            assertEquals(3, state.getShapeIndex().numberOfClasses());
+            assertSame(bowTie[0], classified.get(count));
+            assertTrue(state.isDrawing());
+            assertSame(bowTie[0], state.cancelDrawing());
+            pending.finish();
+            return null;
+        });
+    }
+
+    @Test
+    void finishPutsPendingFiguresOnTheBoard() throws Exception {
+        int count = 30;
+        PendingFigures pending = new PendingFigures(state, owner, new PendingFigures.Listener() {
+            @Override
+            public void classified(Figure figure, boolean closed) {
+            }
+
+            @Override
+            public void failed(Figure figure, Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+        List<Figure> figures = onOwner(() -> {
+            List<Figure> drawn = drawMany(pending, count);
+            // nothing was applied yet, all figures are waited for, as when the game is stopped
+            pending.finish();
+            return drawn;
+        });
+        onOwner(() -> {
+            List<Figure> board = new ArrayList<>(state.getFigures());
+            assertEquals(count, board.size());
+            for (int i = 0; i < count; i++) {
+                assertSame(figures.get(i), board.get(i));
+            }
+            assertTrue(pending.getFigures().isEmpty());
+            assertFalse(state.isDrawing());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolygonEnumeratorTest {
+    /**
+     * Simple polygon (see {@link GeometryTest#bruteForceSimple(int[], int)}), whose every vertex is a real corner
+     */
+    private static boolean simpleWithCorners(int[] c, int n) {
+        for (int i = 0; i < n; i++) {
+            int a = i, b = (i + 1) % n, d = (i + 2) % n;
+            if (GeometryTest.cross(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], c[2 * d], c[2 * d + 1]) == 0) {
+                return false;
+            }
+        }
+        return GeometryTest.bruteForceSimple(c, n);
+    }
+
+    /**
+     * Counts distinct polygons by trying every sequence of lattice points and comparing the sets of all symmetries
+     */
+    private static int bruteForceCount(int size, int maxVertices) {
+        Set<Set<List<Cell>>> distinct = new HashSet<>();
+        int points = (size + 1) * (size + 1);
+        for (int n = 3; n <= maxVertices; n++) {
+            search(new int[2 * n], 0, n, points, size, distinct);
+        }
+        return distinct.size();
+    }
+
+    private static void search(int[] coords, int depth, int n, int points, int size, Set<Set<List<Cell>>> distinct) {
+        if (depth == n) {
+            if (simpleWithCorners(coords, n)) {
+                distinct.add(new Figure(coords, n).getAllSymmetries());
+            }
+            return;
+        }
+        for (int p = 0; p < points; p++) {
+            coords[2 * depth] = p / (size + 1);
+            coords[2 * depth + 1] = p % (size + 1);
+            search(coords, depth + 1, n, points, size, distinct);
+        }
+    }
+
+    @Test
+    void smallestLattice() {
+        // right triangle and the square
+        assertEquals(1, new PolygonEnumerator(1, 3).enumerate().size());
+        assertEquals(2, new PolygonEnumerator(1, 4).enumerate().size());
+    }
+
+    @Test
+    void countsMatchBruteForce() {
+        int[][] cases = {{1, 4}, {2, 4}, {2, 5}, {3, 4}};
+        for (int[] c : cases) {
+            int expected = bruteForceCount(c[0], c[1]);
+            PolygonEnumerator enumerator = new PolygonEnumerator(c[0], c[1]);
+            assertEquals(expected, enumerator.enumerate().size(), () -> "size " + c[0] + ", vertices " + c[1]);
+            assertEquals(expected, enumerator.count(), () -> "size " + c[0] + ", vertices " + c[1]);
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnThePool() {
+        PolygonEnumerator enumerator = new PolygonEnumerator(3, 5);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertEquals(enumerator.enumerate(), enumerator.enumerate(single));
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void streamEmitsEveryShapeOnce() {
+        PolygonEnumerator enumerator = new PolygonEnumerator(3, 5);
+        List<Figure> streamed = enumerator.stream().toList();
+        Set<Figure> distinct = new HashSet<>(streamed);
+        assertEquals(streamed.size(), distinct.size());
+        assertEquals(enumerator.enumerate(), distinct);
+        assertTrue(streamed.stream().allMatch(enumerator::contains));
+    }
+
+    @Test
+    void containsRejectsOutsiders() {
+        PolygonEnumerator enumerator = new PolygonEnumerator(2, 4);
+        // too big for the lattice
+        assertFalse(enumerator.contains(new Figure(new int[]{0, 0, 0, 3, 1, 0}, 3)));
+        // too many vertices
+        assertFalse(enumerator.contains(new Figure(new int[]{0, 0, 0, 2, 1, 2, 1, 1, 2, 1, 2, 0}, 6)));
+    }
+}
@@ -0,0 +1,177 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionStoreTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Journals every change of the state, as the game does
+     */
+    private static void attach(GameState state, SessionStore store) {
+        state.setListener(new GameState.Listener() {
+            @Override
+            public void figureAdded(Figure figure) {
+                try {
+                    store.journalAdd(figure);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void figureRemoved(Figure figure) {
+                try {
+                    store.journalDelete(figure);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void classRecolored(Figure member, int color) {
+                try {
+                    store.journalRecolor(member, color);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Clicks all vertices and the first one again
+     */
+    static Figure draw(GameState state, int color, int... coords) {
+        for (int i = 0; i < coords.length; i += 2) {
+            state.click(coords[i], coords[i + 1], color);
+        }
+        return state.click(coords[0], coords[1], color);
+    }
+
+    /**
+     * @return sequence, color and vertices of all figures on the board
+     */
+    static List<String> describe(GameState state) {
+        List<String> result = new ArrayList<>();
+        for (Figure figure : state.getFigures()) {
+            result.add(figure.getSequence() + " " + Integer.toHexString(figure.getColor()) + " " + figure);
+        }
+        return result;
+    }
+
+    private GameState reload() throws IOException {
+        GameState state = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(state);
+        }
+        return state;
+    }
+
+    /**
+     * Draws figures, deletes, recolors, undoes and redoes, so the journal has all kinds of operations
+     */
+    private static void edit(GameState state, int offset) {
+        Figure square = draw(state, 0xff0000ff, offset, 0, offset, 2, offset + 2, 2, offset + 2, 0);
+        draw(state, 0xff00ff00, offset, 5, offset, 7, offset + 2, 7, offset + 2, 5);
+        Figure triangle = draw(state, 0xffff0000, offset, 10, offset + 1, 13, offset + 3, 10);
+        draw(state, 0xffffff00, offset + 5, 0, offset + 5, 3, offset + 6, 3, offset + 6, 1, offset + 8, 1, offset + 8, 0);
+        state.recolor(square, 0xff123456);
+        state.delete(triangle);
+        state.undo();
+        state.undo();
+        state.redo();
+    }
+
+    @Test
+    void journalRoundTrip() throws IOException {
+        GameState state = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(state);
+            attach(state, store);
+            edit(state, 0);
+        }
+        assertEquals(4, state.getFigures().size());
+        assertEquals(describe(state), describe(reload()));
+    }
+
+    @Test
+    void snapshotAndJournalRoundTrip() throws IOException {
+        GameState state = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(state);
+            attach(state, store);
+            edit(state, 0);
+            store.save(state);
+            edit(state, 20);
+        }
+        assertEquals(describe(state), describe(reload()));
+
+        // the reloaded session continues its journal
+        GameState reloaded = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(reloaded);
+            attach(reloaded, store);
+            edit(reloaded, 40);
+        }
+        assertEquals(describe(reloaded), describe(reload()));
+    }
+
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        GameState state = new GameState();
+        List<String> beforeLast;
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(state);
+            attach(state, store);
+            edit(state, 0);
+            beforeLast = describe(state);
+            draw(state, 0xff00ffff, 30, 0, 30, 4, 33, 4, 33, 0);
+        }
+        Path journal = directory.resolve("journal.bin");
+        byte[] bytes = Files.readAllBytes(journal);
+        for (int cut = 1; cut < 8; cut++) {
+            Files.write(journal, Arrays.copyOf(bytes, bytes.length - cut));
+            assertEquals(beforeLast, describe(reload()), "cut " + cut);
+        }
+
+        // the torn record was cut off, so new edits follow the last valid one
+        GameState reloaded = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(reloaded);
+            attach(reloaded, store);
+            draw(reloaded, 0xff00ffff, 30, 0, 30, 4, 33, 4, 33, 0);
+        }
+        assertEquals(describe(reloaded), describe(reload()));
+    }
+
+    @Test
+    void brokenSnapshotIsRejected() throws IOException {
+        GameState state = new GameState();
+        try (SessionStore store = new SessionStore(directory)) {
+            store.load(state);
+            attach(state, store);
+            edit(state, 0);
+            store.save(state);
+        }
+        Path snapshot = directory.resolve("session.bin");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, this::reload);
+        Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertThrows(IOException.class, this::reload);
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShapeIndexTest {
+    private static Figure square(int y, int x, int color) {
+        return new Figure(color, new int[]{y, x, y, x + 2, y + 2, x + 2, y + 2, x}, 4);
+    }
+
+    private static Figure triangle(int y, int x, int color) {
+        return new Figure(color, new int[]{y, x, y, x + 1, y + 2, x}, 3);
+    }
+
+    @Test
+    void congruentFiguresShareClassColorAndShape() {
+        ShapeIndex index = new ShapeIndex();
+        Figure a = square(0, 0, 1), b = square(5, 7, 2), c = triangle(0, 0, 3);
+        ShapeIndex.ShapeClass squares = index.add(a);
+        assertSame(squares, index.add(b));
+        ShapeIndex.ShapeClass triangles = index.add(c);
+        assertNotSame(squares, triangles);
+        assertEquals(2, index.numberOfClasses());
+        assertEquals(1, index.getNumberOfSymmetries());
+        assertEquals(2, squares.size());
+        assertEquals(1, b.getColor());
+        assertSame(a.getShape(), b.getShape());
+        // a figure, that is not in the index, still finds its class
+        assertSame(triangles, index.classOf(triangle(9, 9, 4)));
+        assertNull(index.classOf(new Figure(new int[]{0, 0, 0, 5, 1, 5, 1, 0}, 4)));
+    }
+
+    @Test
+    void removeAnyMember() {
+        ShapeIndex index = new ShapeIndex();
+        List<Figure> squares = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            squares.add(square(i * 3, 0, i));
+            index.add(squares.get(i));
+        }
+        ShapeIndex.ShapeClass shapeClass = index.classOf(squares.get(0));
+        assertTrue(index.remove(squares.get(1)));
+        assertFalse(index.remove(squares.get(1)));
+        assertTrue(index.remove(squares.get(0)));
+        assertEquals(3, shapeClass.size());
+        // figures are equal if they are congruent, so members are compared by identity
+        Set<Figure> members = identitySet(shapeClass.getMembers());
+        assertEquals(3, members.size());
+        assertTrue(members.containsAll(identitySet(squares.subList(2, 5))));
+        assertEquals(2, index.getNumberOfSymmetries());
+        // a congruent figure, that was never added, is not removed
+        assertFalse(index.remove(square(100, 100, 0)));
+        for (int i = 2; i < 5; i++) {
+            assertTrue(index.remove(squares.get(i)));
+        }
+        assertNull(index.classOf(squares.get(0)));
+        assertEquals(0, index.numberOfClasses());
+        assertEquals(0, index.getNumberOfSymmetries());
+    }
+
+    @Test
+    void randomAddsAndRemovesMatchTheModel() {
+        ShapeIndex index = new ShapeIndex();
+        Random random = new Random(3);
+        List<Figure> added = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (added.isEmpty() || random.nextInt(3) > 0) {
+                Figure figure = random.nextBoolean() ? square(random.nextInt(50), random.nextInt(50), 0)
+                        : random.nextBoolean() ? triangle(random.nextInt(50), random.nextInt(50), 0)
+                        : new Figure(new int[]{0, 0, 0, 1 + random.nextInt(4), 1, 1 + random.nextInt(4)}, 3);
+                index.add(figure);
+                added.add(figure);
+            } else {
+                Figure figure = added.remove(random.nextInt(added.size()));
+                assertTrue(index.remove(figure));
+            }
+            if (step % 500 == 0) {
+                Set<CanonicalShape> shapes = new HashSet<>();
+                for (Figure figure : added) {
+                    shapes.add(figure.getShape());
+                    assertTrue(identitySet(index.classOf(figure).getMembers()).contains(figure));
+                }
+                assertEquals(shapes.size(), index.numberOfClasses());
+                assertEquals(added.size() - shapes.size(), index.getNumberOfSymmetries());
+            }
+        }
+    }
+
+    private static Set<Figure> identitySet(List<Figure> figures) {
+        Set<Figure> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(figures);
+        return set;
+    }
+}
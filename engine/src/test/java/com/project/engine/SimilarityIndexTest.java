@@ -0,0 +1,123 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.project.engine.FigureTest.coordsOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimilarityIndexTest {
+    private static List<ShapeDescriptor> descriptors() {
+        List<ShapeDescriptor> result = new ArrayList<>();
+        for (Figure shape : new PolygonEnumerator(3, 6).enumerate()) {
+            result.add(ShapeDescriptor.of(shape.getShape()));
+        }
+        return result;
+    }
+
+    /**
+     * Checks the result against distances to all indexed values: the same distances in the same order,
+     * every returned value is indexed and has the returned distance (values with equal distances can be swapped)
+     */
+    private static void assertNearest(SimilarityIndex<Integer> index, Map<Integer, ShapeDescriptor> indexed,
+                                      ShapeDescriptor query, int k) {
+        List<Double> expected = indexed.values().stream().map(query::distance)
+                .sorted().limit(k).toList();
+        List<SimilarityIndex.Neighbor<Integer>> result = index.nearest(query, k);
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < result.size(); i++) {
+            SimilarityIndex.Neighbor<Integer> neighbor = result.get(i);
+            assertTrue(indexed.containsKey(neighbor.getValue()));
+            assertEquals(query.distance(indexed.get(neighbor.getValue())), neighbor.getDistance());
+            assertEquals(expected.get(i), neighbor.getDistance(), 1e-12);
+        }
+    }
+
+    @Test
+    void nearestMatchesSortedScan() {
+        List<ShapeDescriptor> all = descriptors();
+        assertTrue(all.size() > 1000);
+        Random random = new Random(7);
+        SimilarityIndex<Integer> index = new SimilarityIndex<>();
+        Map<Integer, ShapeDescriptor> indexed = new HashMap<>();
+        for (int step = 0; step < 4000; step++) {
+            int value = random.nextInt(all.size());
+            if (random.nextInt(3) > 0) {
+                index.add(value, all.get(value));
+                indexed.put(value, all.get(value));
+            } else {
+                assertEquals(indexed.remove(value) != null, index.remove(value));
+            }
+            assertEquals(indexed.size(), index.size());
+            if (step % 100 == 0) {
+                for (int k : new int[]{1, 5, 40}) {
+                    assertNearest(index, indexed, all.get(random.nextInt(all.size())), k);
+                }
+            }
+        }
+        // remove most of them, so the trees are rebuilt
+        for (Integer value : new ArrayList<>(indexed.keySet())) {
+            if (random.nextInt(10) > 0) {
+                assertTrue(index.remove(value));
+                indexed.remove(value);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            assertNearest(index, indexed, all.get(random.nextInt(all.size())), 10);
+        }
+        assertTrue(index.nearest(all.get(0), 0).isEmpty());
+    }
+
+    @Test
+    void replacedDescriptorIsFoundByTheNewOne() {
+        List<ShapeDescriptor> all = descriptors();
+        SimilarityIndex<String> index = new SimilarityIndex<>();
+        index.add("a", all.get(0));
+        index.add("b", all.get(1));
+        index.add("a", all.get(2));
+        assertEquals(2, index.size());
+        assertEquals(0, index.nearest(all.get(2), 1).get(0).getDistance());
+        assertEquals("a", index.nearest(all.get(2), 1).get(0).getValue());
+        assertTrue(index.remove("a"));
+        assertFalse(index.remove("a"));
+        assertEquals(List.of("b"), index.nearest(all.get(2), 5).stream().map(SimilarityIndex.Neighbor::getValue).toList());
+    }
+
+    @Test
+    void descriptorIgnoresSize() {
+        // scaled copy has the same turning function, only the size components move by log2 of the ratio
+        for (Figure shape : new PolygonEnumerator(2, 5).enumerate()) {
+            int n = shape.number_of_vertices();
+            int[] coords = coordsOf(shape);
+            int[] scaled = new int[2 * n];
+            for (int i = 0; i < 2 * n; i++) {
+                scaled[i] = 2 * coords[i] + 5;
+            }
+            ShapeDescriptor a = ShapeDescriptor.of(shape.getShape());
+            ShapeDescriptor b = ShapeDescriptor.of(new Figure(scaled, n).getShape());
+            // area is 4 times bigger, perimeter twice
+            assertEquals(a.get(0) + 1, b.get(0), 1e-5);
+            assertEquals(a.get(1) + 0.5, b.get(1), 1e-5);
+            for (int d = 2; d < ShapeDescriptor.DIMENSIONS; d++) {
+                assertEquals(a.get(d), b.get(d), 1e-5, shape::toString);
+            }
+        }
+    }
+
+    @Test
+    void similarShapesAreCloser() {
+        Figure square = new Figure(new int[]{0, 0, 0, 4, 4, 4, 4, 0}, 4);
+        Figure almostSquare = new Figure(new int[]{0, 0, 0, 4, 5, 4, 4, 0}, 4);
+        Figure longRectangle = new Figure(new int[]{0, 0, 0, 16, 1, 16, 1, 0}, 4);
+        ShapeDescriptor query = ShapeDescriptor.of(square.getShape());
+        assertTrue(query.distance(ShapeDescriptor.of(almostSquare.getShape()))
+                < query.distance(ShapeDescriptor.of(longRectangle.getShape())));
+    }
+}
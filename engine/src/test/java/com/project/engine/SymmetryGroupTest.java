@@ -0,0 +1,158 @@
+package com.project.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.project.engine.FigureTest.coordsOf;
+import static com.project.engine.FigureTest.moved;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymmetryGroupTest {
+    /**
+     * @return edges of the polygon moved to the origin, without direction, so the set does not depend
+     * on the first vertex or the orientation
+     */
+    private static Set<List<Integer>> edges(int[] coords, int n) {
+        int minY = Integer.MAX_VALUE, minX = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minY = Math.min(minY, coords[2 * i]);
+            minX = Math.min(minX, coords[2 * i + 1]);
+        }
+        Set<List<Integer>> edges = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            List<Integer> a = List.of(coords[2 * i] - minY, coords[2 * i + 1] - minX);
+            List<Integer> b = List.of(coords[2 * j] - minY, coords[2 * j + 1] - minX);
+            boolean ordered = a.get(0) < b.get(0) || a.get(0).equals(b.get(0)) && a.get(1) < b.get(1);
+            edges.add(ordered ? List.of(a.get(0), a.get(1), b.get(0), b.get(1)) : List.of(b.get(0), b.get(1), a.get(0), a.get(1)));
+        }
+        return edges;
+    }
+
+    /**
+     * Tries all 8 transforms of the lattice
+     */
+    private static int bruteForceMask(int[] coords, int n) {
+        Set<List<Integer>> original = edges(coords, n);
+        int mask = 0;
+        for (int t = 0; t < 8; t++) {
+            if (edges(moved(coords, n, t, 0, 0, 0, false), n).equals(original)) {
+                mask |= 1 << t;
+            }
+        }
+        return mask;
+    }
+
+    @Test
+    void groupsMatchBruteForce() {
+        Random random = new Random(5);
+        Set<String> names = new HashSet<>();
+        for (Figure shape : new PolygonEnumerator(3, 6).enumerate()) {
+            int n = shape.number_of_vertices();
+            int[] coords = coordsOf(shape);
+            int expected = bruteForceMask(coords, n);
+            assertEquals(expected, SymmetryGroup.of(coords, n).getMask(), shape::toString);
+            assertEquals(expected, shape.getSymmetryGroup().getMask(), shape::toString);
+            assertEquals(shape.getShape().getSymmetryGroup().order(), Integer.bitCount(expected));
+            names.add(shape.getSymmetryGroup().getName());
+            for (int t = 0; t < 8; t++) {
+                int[] copy = moved(coords, n, t, random.nextInt(41) - 20, random.nextInt(41) - 20,
+                        random.nextInt(n), random.nextBoolean());
+                Figure figure = new Figure(copy, n);
+                SymmetryGroup group = figure.getSymmetryGroup();
+                assertEquals(bruteForceMask(copy, n), group.getMask(), figure::toString);
+                assertEquals(shape.getSymmetryGroup().conjugate(t), group, figure::toString);
+                assertEquals(shape.getSymmetryGroup().getName(), group.getName());
+            }
+        }
+        // every kind of a subgroup of D4 appears on a 3 x 3 lattice
+        assertEquals(Set.of("C1", "C2", "C4", "D1", "D2", "D4"), names);
+    }
+
+    @Test
+    void composeAndInverseMatchTheTransforms() {
+        for (int a = 0; a < 8; a++) {
+            for (int b = 0; b < 8; b++) {
+                int c = SymmetryGroup.compose(a, b);
+                for (int[] point : new int[][]{{1, 2}, {-3, 5}}) {
+                    int y = SymmetryGroup.transformY(b, point[0], point[1]), x = SymmetryGroup.transformX(b, point[0], point[1]);
+                    assertEquals(SymmetryGroup.transformY(a, y, x), SymmetryGroup.transformY(c, point[0], point[1]));
+                    assertEquals(SymmetryGroup.transformX(a, y, x), SymmetryGroup.transformX(c, point[0], point[1]));
+                }
+            }
+            assertEquals(SymmetryGroup.IDENTITY, SymmetryGroup.compose(a, SymmetryGroup.inverse(a)));
+            assertEquals(SymmetryGroup.IDENTITY, SymmetryGroup.compose(SymmetryGroup.inverse(a), a));
+        }
+        assertEquals(SymmetryGroup.ROTATE_180, SymmetryGroup.compose(SymmetryGroup.ROTATE_90, SymmetryGroup.ROTATE_90));
+        assertEquals(SymmetryGroup.ROTATE_270, SymmetryGroup.inverse(SymmetryGroup.ROTATE_90));
+        // (1, 0) rotated by 90 degrees
+        assertEquals(0, SymmetryGroup.transformY(SymmetryGroup.ROTATE_90, 1, 0));
+        assertEquals(1, SymmetryGroup.transformX(SymmetryGroup.ROTATE_90, 1, 0));
+    }
+
+    @Test
+    void closureGivesSubgroups() {
+        Set<Integer> subgroups = new HashSet<>();
+        for (int mask = 0; mask < 256; mask++) {
+            int closed = SymmetryGroup.closure(mask);
+            assertEquals(mask | closed, closed);
+            assertEquals(closed, SymmetryGroup.closure(closed));
+            for (int a = 0; a < 8; a++) {
+                for (int b = 0; b < 8; b++) {
+                    if ((closed & 1 << a) != 0 && (closed & 1 << b) != 0) {
+                        assertTrue((closed & 1 << SymmetryGroup.compose(a, b)) != 0);
+                    }
+                }
+            }
+            subgroups.add(closed);
+        }
+        // D4 has 10 subgroups
+        assertEquals(10, subgroups.size());
+    }
+
+    @Test
+    void cosetRepresentativesGiveAllImagesOnce() {
+        for (Figure shape : new PolygonEnumerator(3, 5).enumerate()) {
+            int n = shape.number_of_vertices();
+            int[] coords = coordsOf(shape);
+            SymmetryGroup group = shape.getSymmetryGroup();
+            Set<Set<List<Integer>>> all = new HashSet<>();
+            for (int t = 0; t < 8; t++) {
+                all.add(edges(moved(coords, n, t, 0, 0, 0, false), n));
+            }
+            int[] representatives = group.cosetRepresentatives();
+            assertEquals(8 / group.order(), representatives.length);
+            Set<Set<List<Integer>>> images = new HashSet<>();
+            int covered = 0;
+            for (int t : representatives) {
+                images.add(edges(moved(coords, n, t, 0, 0, 0, false), n));
+                covered |= SymmetryGroup.cosets(group.getMask(), 1 << t);
+            }
+            assertEquals(all, images);
+            assertEquals(representatives.length, images.size());
+            assertEquals(0xff, covered);
+        }
+    }
+
+    @Test
+    void namesAndCounts() {
+        SymmetryGroup square = new Figure(new int[]{0, 0, 0, 2, 2, 2, 2, 0}, 4).getSymmetryGroup();
+        assertEquals("D4", square.getName());
+        assertEquals(8, square.order());
+        assertEquals(4, square.rotationOrder());
+        assertEquals(4, square.mirrorAxes());
+        SymmetryGroup rectangle = new Figure(new int[]{0, 0, 0, 3, 1, 3, 1, 0}, 4).getSymmetryGroup();
+        assertEquals("D2", rectangle.getName());
+        assertTrue(rectangle.contains(SymmetryGroup.MIRROR_VERTICAL));
+        assertTrue(rectangle.contains(SymmetryGroup.MIRROR_HORIZONTAL));
+        SymmetryGroup triangle = new Figure(new int[]{0, 0, 0, 1, 1, 0}, 3).getSymmetryGroup();
+        assertEquals("D1", triangle.getName());
+        assertTrue(triangle.contains(SymmetryGroup.MIRROR_DIAGONAL));
+        assertEquals(SymmetryGroup.TRIVIAL, new Figure(new int[]{0, 0, 0, 1, 2, 0}, 3).getSymmetryGroup());
+    }
+}